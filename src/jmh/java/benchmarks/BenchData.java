@@ -0,0 +1,190 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import utilities.JsonCompare;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Synthetic, seeded generators for the benchmarks: wide rows, deep/wide JSON columns shaped like
+ * poiresponse/eventpayload, large expected arrays, and an in-memory ResultSet for the row-mapping loop.
+ */
+final class BenchData {
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    static final String[] JSON_COLUMNS = {"poiresponse", "eventpayload"};
+
+    private BenchData() {
+    }
+
+    /** Discards output so the per-row console logging does not dominate the measurements. */
+    static void silenceStdout() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static String scalarColumn(int i) {
+        return "col_" + i;
+    }
+
+    /** Nested object with the given depth and fan-out; leaves mix strings, numbers and booleans. */
+    static ObjectNode deepJson(Random rnd, int depth, int breadth) {
+        ObjectNode node = MAPPER.createObjectNode();
+        for (int i = 0; i < breadth; i++) {
+            String name = "f" + i;
+            if (depth > 1 && i % 2 == 0) {
+                node.set(name, deepJson(rnd, depth - 1, breadth));
+            } else if (i % 5 == 1) {
+                ArrayNode arr = node.putArray(name);
+                for (int k = 0; k < 3; k++) arr.add("v" + rnd.nextInt(1000));
+            } else if (i % 3 == 0) {
+                node.put(name, rnd.nextInt(100_000));
+            } else if (i % 7 == 0) {
+                node.put(name, rnd.nextBoolean());
+            } else {
+                node.put(name, "s" + rnd.nextInt(100_000));
+            }
+        }
+        return node;
+    }
+
+    /** Every leaf path of the object, dotted, used as jsonRequiredPaths. */
+    static List<String> leafPaths(JsonNode node, String prefix, List<String> out) {
+        Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            String path = prefix.isEmpty() ? e.getKey() : prefix + "." + e.getKey();
+            if (e.getValue().isObject()) {
+                leafPaths(e.getValue(), path, out);
+            } else {
+                out.add(path);
+            }
+        }
+        return out;
+    }
+
+    /** One expected row: scalar columns, a datetime column and the JSON columns as objects. */
+    static ObjectNode expectedRow(Random rnd, int scalarColumns, int jsonDepth, int jsonBreadth) {
+        ObjectNode row = MAPPER.createObjectNode();
+        for (int i = 0; i < scalarColumns; i++) {
+            row.put(scalarColumn(i), "value-" + rnd.nextInt(1_000_000));
+        }
+        row.put("created_at", "2024-05-01 10:15:30");
+        for (String json : JSON_COLUMNS) {
+            row.set(json, deepJson(rnd, jsonDepth, jsonBreadth));
+        }
+        return row;
+    }
+
+    static ArrayNode expectedArray(long seed, int rows, int scalarColumns, int jsonDepth, int jsonBreadth) {
+        Random rnd = new Random(seed);
+        ArrayNode arr = MAPPER.createArrayNode();
+        for (int r = 0; r < rows; r++) {
+            arr.add(expectedRow(rnd, scalarColumns, jsonDepth, jsonBreadth));
+        }
+        return arr;
+    }
+
+    /** DB-side rows matching the expected array: JSON columns serialized to text like MySQL returns them. */
+    static List<Map<String, Object>> actualRows(ArrayNode expected) {
+        List<Map<String, Object>> rows = new ArrayList<>(expected.size());
+        for (JsonNode exp : expected) {
+            Map<String, Object> row = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> it = exp.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> e = it.next();
+                JsonNode v = e.getValue();
+                row.put(e.getKey(), v.isContainerNode() ? v.toString() : v.asText());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static JsonCompare.Schema schema(ArrayNode expected, boolean requiredPaths) {
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.tableName = "bench";
+        JsonNode first = expected.get(0);
+        first.fieldNames().forEachRemaining(schema.requiredFields::add);
+        for (String json : JSON_COLUMNS) {
+            JsonCompare.ColumnRule rule = new JsonCompare.ColumnRule();
+            rule.type = "json";
+            if (requiredPaths) {
+                rule.jsonRequiredPaths = leafPaths(first.get(json), "", new ArrayList<>());
+            }
+            schema.rules.put(json, rule);
+        }
+        return schema;
+    }
+
+    static String[] scalarColumns(int columns) {
+        String[] labels = new String[columns];
+        for (int c = 0; c < columns; c++) {
+            labels[c] = scalarColumn(c);
+        }
+        return labels;
+    }
+
+    /** Generated row values: ids, amounts, timestamps and sparsely null text columns. */
+    static Object[][] mixedRows(long seed, int rows, int columns) {
+        Random rnd = new Random(seed);
+        Object[][] data = new Object[rows][columns];
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                switch (c % 4) {
+                    case 0 -> data[r][c] = (long) rnd.nextInt(1_000_000);
+                    case 1 -> data[r][c] = rnd.nextDouble() * 1000;
+                    case 2 -> data[r][c] = Timestamp.valueOf(base.plusSeconds(rnd.nextInt(86_400 * 365)));
+                    default -> data[r][c] = rnd.nextInt(10) == 0 ? null : "text-" + rnd.nextInt(100_000);
+                }
+            }
+        }
+        return data;
+    }
+
+    /** Rows of the given maps, columns in the first row's key order. */
+    static ResultSet resultSet(List<Map<String, Object>> rows) {
+        String[] labels = rows.isEmpty() ? new String[0] : rows.get(0).keySet().toArray(new String[0]);
+        Object[][] data = new Object[rows.size()][];
+        for (int r = 0; r < rows.size(); r++) {
+            data[r] = new Object[labels.length];
+            for (int c = 0; c < labels.length; c++) {
+                data[r][c] = rows.get(r).get(labels[c]);
+            }
+        }
+        return resultSet(labels, data);
+    }
+
+    /** Forward-only ResultSet over the given values; cheap to create, so one can be opened per invocation. */
+    static ResultSet resultSet(String[] labels, Object[][] data) {
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(
+                BenchData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (p, m, a) -> {
+                    switch (m.getName()) {
+                        case "getColumnCount": return labels.length;
+                        case "getColumnLabel":
+                        case "getColumnName": return labels[(Integer) a[0] - 1];
+                        default: throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(
+                BenchData.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (p, m, a) -> {
+                    switch (m.getName()) {
+                        case "getMetaData": return meta;
+                        case "next": return ++cursor[0] < data.length;
+                        case "getObject": return data[cursor[0]][(Integer) a[0] - 1];
+                        case "close": return null;
+                        default: throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.annotations.*;
+import utilities.JsonCompare;
+import utilities.RowSet;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonCompare.validateTable over synthetic tables. The JSON columns drive compareJsonNodes; the
+ * requiredPaths variant additionally resolves every leaf through the required-path trie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonCompareBenchmark {
+    @Param({"1", "50"})
+    public int rows;
+
+    @Param({"20", "150"})
+    public int scalarColumns;
+
+    @Param({"2", "4"})
+    public int jsonDepth;
+
+    @Param({"8"})
+    public int jsonBreadth;
+
+    private final JsonCompare compare = new JsonCompare();
+    private ArrayNode expected;
+    private List<Map<String, Object>> actualMaps;
+    private RowSet actualRowSet;
+    private JsonCompare.Schema schema;
+    private JsonCompare.Schema requiredPathsSchema;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        BenchData.silenceStdout();
+        expected = BenchData.expectedArray(42L, rows, scalarColumns, jsonDepth, jsonBreadth);
+        actualMaps = BenchData.actualRows(expected);
+        actualRowSet = RowSet.from(BenchData.resultSet(actualMaps));
+        schema = BenchData.schema(expected, false);
+        requiredPathsSchema = BenchData.schema(expected, true);
+    }
+
+    @Benchmark
+    public JsonCompare.ValidationReport validateTableMaps() {
+        return compare.validateTable("bench", "evt-1", "bench", actualMaps, expected, schema);
+    }
+
+    @Benchmark
+    public JsonCompare.ValidationReport validateTableRowSet() {
+        return compare.validateTable("bench", "evt-1", "bench", actualRowSet, expected, schema);
+    }
+
+    @Benchmark
+    public JsonCompare.ValidationReport validateTableRequiredPaths() {
+        return compare.validateTable("bench", "evt-1", "bench", actualRowSet, expected, requiredPathsSchema);
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utilities.RowSet;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The databasecolumnUtil row-mapping loop over an in-memory ResultSet: the columnar RowSet, its
+ * List-of-Map view, and the original per-row HashMap loop as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowMappingBenchmark {
+    @Param({"100", "10000"})
+    public int rows;
+
+    @Param({"10", "60"})
+    public int columns;
+
+    private String[] labels;
+    private Object[][] data;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        labels = BenchData.scalarColumns(columns);
+        data = BenchData.mixedRows(7L, rows, columns);
+    }
+
+    @Benchmark
+    public RowSet rowSet() throws SQLException {
+        return RowSet.from(BenchData.resultSet(labels, data));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> rowSetToMaps() throws SQLException {
+        return RowSet.from(BenchData.resultSet(labels, data)).toMaps();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> hashMapPerRow() throws SQLException {
+        ResultSet rs = BenchData.resultSet(labels, data);
+        List<Map<String, Object>> out = new ArrayList<>();
+        ResultSetMetaData meta = rs.getMetaData();
+        int colCount = meta.getColumnCount();
+        while (rs.next()) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 1; i <= colCount; i++) {
+                row.put(meta.getColumnLabel(i), rs.getObject(i));
+            }
+            out.add(row);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,164 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * Hash-backed form of a {@link JsonCompare.Schema} and its {@link JsonCompare.ColumnRule}s, built once
+ * per table so per-row comparison does set lookups instead of List.contains and string rebuilding.
+ */
+public class CompiledSchema {
+    private final Set<String> required;
+    private final Set<String> optional;
+    private final Map<String, CompiledRule> rules;
+
+    CompiledSchema(JsonCompare.Schema schema) {
+        this.required = new HashSet<>(schema.requiredFields);
+        this.optional = new HashSet<>(schema.optionalFields);
+        this.rules = new HashMap<>();
+        for (Map.Entry<String, JsonCompare.ColumnRule> e : schema.rules.entrySet()) {
+            JsonCompare.ColumnRule rule = e.getValue();
+            rules.put(e.getKey(), rule.compiled != null ? new CompiledRule(e.getKey(), rule.compiled) : new CompiledRule(e.getKey(), rule));
+        }
+    }
+
+    public boolean isRequired(String field) {
+        return required.contains(field);
+    }
+
+    public boolean isOptional(String field) {
+        return optional.contains(field);
+    }
+
+    public CompiledRule rule(String field) {
+        CompiledRule rule = rules.get(field);
+        return rule != null ? rule : CompiledRule.DEFAULT;
+    }
+
+    public static class CompiledRule {
+        static final CompiledRule DEFAULT = new CompiledRule("", new JsonCompare.ColumnRule());
+
+        public final JsonCompare.ColumnRule source;
+        public final boolean typed;
+        public final boolean time;
+        public final boolean json;
+        public final boolean notNull;
+        public final boolean requiredOnly;
+        public final boolean jsonSchemaEmpty;
+        public final ValueMatcher timeMatcher;
+        public final Set<String> allowed;
+        public final List<String> jsonRequiredFields;
+        public final List<String> jsonRequiredPaths;
+        /** jsonRequiredFields followed by jsonRequiredPaths; slot i is field i, slot F+i is path i. */
+        public final JsonPathTrie requiredTrie;
+
+        // Path sets hold both the column-relative entry and its "column." prefixed form, so a
+        // full path lookup covers the relative case; the raw sets serve leaf-name lookups.
+        private final Set<String> ignorePaths;
+        final Set<String> ignoreNames;
+        private final Set<String> optionalPaths;
+        final Set<String> optionalNames;
+        private final Set<String> requiredPaths;
+        final Set<String> requiredNames;
+
+        CompiledRule(String column, JsonCompare.ColumnRule rule) {
+            this.source = rule;
+            String type = rule.type == null ? "" : rule.type;
+            this.typed = !type.isEmpty();
+            this.time = "time".equalsIgnoreCase(type);
+            this.json = "json".equalsIgnoreCase(type);
+            this.notNull = rule.notNull;
+            this.requiredOnly = "requiredOnly".equalsIgnoreCase(rule.jsonValidateMode);
+            this.timeMatcher = rule.timePattern != null ? ValueMatcher.regex(rule.timePattern) : DateTimeMatcher.LOCAL;
+            this.allowed = rule.allowed == null ? Collections.emptySet() : new HashSet<>(rule.allowed);
+            this.jsonRequiredFields = rule.jsonRequiredFields == null ? Collections.emptyList() : List.copyOf(rule.jsonRequiredFields);
+            this.jsonRequiredPaths = rule.jsonRequiredPaths == null ? Collections.emptyList() : List.copyOf(rule.jsonRequiredPaths);
+            this.requiredTrie = new JsonPathTrie(concat(jsonRequiredFields, jsonRequiredPaths));
+            this.jsonSchemaEmpty = jsonRequiredFields.isEmpty() && jsonRequiredPaths.isEmpty()
+                    && isEmpty(rule.jsonOptionalPaths) && isEmpty(rule.jsonIgnorePaths);
+
+            this.ignoreNames = rawSet(rule.jsonIgnorePaths);
+            this.ignorePaths = prefixedSet(column, rule.jsonIgnorePaths);
+            this.optionalNames = rawSet(rule.jsonOptionalPaths);
+            this.optionalPaths = prefixedSet(column, rule.jsonOptionalPaths);
+            this.requiredNames = rawSet(rule.jsonRequiredPaths);
+            this.requiredPaths = prefixedSet(column, rule.jsonRequiredPaths);
+        }
+
+        /** The compiled rule bound to another column; only the "column." prefixed path sets are rebuilt. */
+        CompiledRule(String column, CompiledRule compiled) {
+            this(compiled.source, compiled.typed, compiled.time, compiled.json, compiled.requiredOnly, compiled.jsonSchemaEmpty,
+                    compiled.timeMatcher, compiled.allowed, compiled.jsonRequiredFields, compiled.jsonRequiredPaths, compiled.requiredTrie,
+                    compiled.ignoreNames, compiled.optionalNames, compiled.requiredNames, column);
+        }
+
+        /** Restores a rule from its compiled parts (see SchemaRegistry's snapshot), bound to no column. */
+        CompiledRule(JsonCompare.ColumnRule source, boolean typed, boolean time, boolean json, boolean requiredOnly, boolean jsonSchemaEmpty,
+                     Set<String> allowed, List<String> jsonRequiredFields, List<String> jsonRequiredPaths,
+                     Set<String> ignoreNames, Set<String> optionalNames, Set<String> requiredNames) {
+            this(source, typed, time, json, requiredOnly, jsonSchemaEmpty,
+                    source.timePattern != null ? ValueMatcher.regex(source.timePattern) : DateTimeMatcher.LOCAL,
+                    allowed, jsonRequiredFields, jsonRequiredPaths, new JsonPathTrie(concat(jsonRequiredFields, jsonRequiredPaths)),
+                    ignoreNames, optionalNames, requiredNames, "");
+        }
+
+        private CompiledRule(JsonCompare.ColumnRule source, boolean typed, boolean time, boolean json, boolean requiredOnly, boolean jsonSchemaEmpty,
+                             ValueMatcher timeMatcher, Set<String> allowed, List<String> jsonRequiredFields, List<String> jsonRequiredPaths,
+                             JsonPathTrie requiredTrie, Set<String> ignoreNames, Set<String> optionalNames, Set<String> requiredNames, String column) {
+            this.source = source;
+            this.typed = typed;
+            this.time = time;
+            this.json = json;
+            this.notNull = source.notNull;
+            this.requiredOnly = requiredOnly;
+            this.jsonSchemaEmpty = jsonSchemaEmpty;
+            this.timeMatcher = timeMatcher;
+            this.allowed = allowed;
+            this.jsonRequiredFields = jsonRequiredFields;
+            this.jsonRequiredPaths = jsonRequiredPaths;
+            this.requiredTrie = requiredTrie;
+            this.ignoreNames = ignoreNames;
+            this.ignorePaths = prefixedSet(column, ignoreNames);
+            this.optionalNames = optionalNames;
+            this.optionalPaths = prefixedSet(column, optionalNames);
+            this.requiredNames = requiredNames;
+            this.requiredPaths = prefixedSet(column, requiredNames);
+        }
+
+        public boolean isIgnoredPath(String fullPath) {
+            return ignorePaths.contains(fullPath);
+        }
+
+        public boolean isRequiredJsonField(String fullPath, String name) {
+            if (ignorePaths.contains(fullPath) || ignoreNames.contains(name)) return false;
+            if (optionalPaths.contains(fullPath) || optionalNames.contains(name)) return false;
+            if (!requiredNames.isEmpty()) {
+                return requiredPaths.contains(fullPath) || requiredNames.contains(name);
+            }
+            return true;
+        }
+
+        private static boolean isEmpty(List<String> values) {
+            return values == null || values.isEmpty();
+        }
+
+        private static Set<String> rawSet(List<String> values) {
+            return values == null ? Collections.emptySet() : new HashSet<>(values);
+        }
+
+        private static List<String> concat(List<String> first, List<String> second) {
+            List<String> out = new ArrayList<>(first);
+            out.addAll(second);
+            return out;
+        }
+
+        private static Set<String> prefixedSet(String column, Collection<String> values) {
+            if (values == null) return Collections.emptySet();
+            Set<String> out = new HashSet<>(values.size() * 2);
+            for (String v : values) {
+                out.add(v);
+                out.add(column + "." + v);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package utilities;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed JDBC connection pool. One pool per host/port/database/user; connections handed out are
+ * proxies whose close() returns the physical connection to the pool instead of closing it.
+ *
+ * Sizing is read from system properties: db.pool.minSize, db.pool.maxSize, db.pool.maxIdleMillis,
+ * db.pool.borrowTimeoutMillis, db.pool.validationTimeoutSeconds.
+ *
+ * Each physical connection also keeps an LRU of up to db.pool.statementCacheSize server-side prepared
+ * statements keyed by SQL text; prepareStatement(sql) on a pooled connection reuses them across borrows,
+ * and close() on the handed-out statement only clears its parameters. Set the size to 0 to disable.
+ *
+ * minSize connections are opened when a key is first used and are kept past maxIdleMillis; on borrow they
+ * are revalidated with isValid() instead. Idle connections beyond minSize and past maxIdleMillis are
+ * evicted on borrow and by a background daemon every maxIdleMillis (at least once a second). The shared
+ * pool is closed by a shutdown hook; other pools must call closeAll().
+ */
+public class ConnectionPool {
+    private static final Log LOG = Log.get("ConnectionPool");
+    private static final long MIN_EVICTION_INTERVAL_MILLIS = 1_000;
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "db-pool-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final ConnectionPool SHARED = new ConnectionPool(Config.fromSystemProperties());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SHARED::closeAll, "db-pool-shutdown"));
+    }
+
+    private final Config config;
+    private final Map<String, KeyedPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> eviction;
+
+    public ConnectionPool(Config config) {
+        this.config = config;
+        long interval = Math.max(MIN_EVICTION_INTERVAL_MILLIS, config.maxIdleMillis);
+        this.eviction = EVICTOR.scheduleWithFixedDelay(this::evictIdleQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public static ConnectionPool shared() {
+        return SHARED;
+    }
+
+    public Connection getConnection(String host, int port, String database, String user, String password) throws SQLException {
+        String key = host + ":" + port + "/" + database + "@" + user;
+        KeyedPool pool = pools.computeIfAbsent(key, k -> new KeyedPool(
+                jdbcUrl(host, port, database) + (config.statementCacheSize > 0 ? "&useServerPrepStmts=true" : ""), user, password));
+        pool.prefill();
+        return pool.borrow();
+    }
+
+    public static String jdbcUrl(String host, int port, String database) {
+        return "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&allowPublicKeyRetrieval=true";
+    }
+
+    public Map<String, PoolMetrics> metrics() {
+        Map<String, PoolMetrics> out = new TreeMap<>();
+        for (Map.Entry<String, KeyedPool> e : pools.entrySet()) {
+            out.put(e.getKey(), e.getValue().snapshot());
+        }
+        return out;
+    }
+
+    public void evictIdle() {
+        for (KeyedPool pool : pools.values()) {
+            pool.evictIdle();
+        }
+    }
+
+    private void evictIdleQuietly() {
+        try {
+            evictIdle();
+        } catch (RuntimeException ex) {
+            LOG.warn("idle eviction failed: " + ex);
+        }
+    }
+
+    /** Closes every pooled connection and stops idle eviction; the pool should not be used afterwards. */
+    public void closeAll() {
+        eviction.cancel(false);
+        for (KeyedPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    public static class Config {
+        public int minSize = 0;
+        public int maxSize = 8;
+        public long maxIdleMillis = 60_000;
+        public long borrowTimeoutMillis = 30_000;
+        public int validationTimeoutSeconds = 2;
+        public int statementCacheSize = 64;
+
+        public static Config fromSystemProperties() {
+            Config c = new Config();
+            c.minSize = Integer.getInteger("db.pool.minSize", c.minSize);
+            c.maxSize = Math.max(1, Integer.getInteger("db.pool.maxSize", c.maxSize));
+            c.maxIdleMillis = Long.getLong("db.pool.maxIdleMillis", c.maxIdleMillis);
+            c.borrowTimeoutMillis = Long.getLong("db.pool.borrowTimeoutMillis", c.borrowTimeoutMillis);
+            c.validationTimeoutSeconds = Integer.getInteger("db.pool.validationTimeoutSeconds", c.validationTimeoutSeconds);
+            c.statementCacheSize = Math.max(0, Integer.getInteger("db.pool.statementCacheSize", c.statementCacheSize));
+            return c;
+        }
+    }
+
+    public static class PoolMetrics {
+        public int active;
+        public int idle;
+        public long borrows;
+        public long created;
+        public long evicted;
+        public long validationFailures;
+        public long totalBorrowWaitNanos;
+        public long maxBorrowWaitNanos;
+        public long statementCacheHits;
+        public long statementCacheMisses;
+
+        public double avgBorrowWaitMillis() {
+            return borrows == 0 ? 0.0 : (totalBorrowWaitNanos / (double) borrows) / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "active=" + active + " idle=" + idle + " borrows=" + borrows + " created=" + created
+                    + " evicted=" + evicted + " validationFailures=" + validationFailures
+                    + " avgWaitMs=" + String.format(Locale.ROOT, "%.3f", avgBorrowWaitMillis())
+                    + " maxWaitMs=" + String.format(Locale.ROOT, "%.3f", maxBorrowWaitNanos / 1_000_000.0)
+                    + " stmtCacheHits=" + statementCacheHits + " stmtCacheMisses=" + statementCacheMisses;
+        }
+    }
+
+    private static class IdleConnection {
+        final Connection physical;
+        final long idleSince;
+
+        IdleConnection(Connection physical, long idleSince) {
+            this.physical = physical;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private class KeyedPool {
+        final String jdbcUrl;
+        final String user;
+        final String password;
+        final Semaphore permits;
+        final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicLong borrows = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong evicted = new AtomicLong();
+        final AtomicLong validationFailures = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+        final AtomicLong statementHits = new AtomicLong();
+        final AtomicLong statementMisses = new AtomicLong();
+        final Map<Connection, StatementCache> statements = Collections.synchronizedMap(new IdentityHashMap<>());
+        final AtomicBoolean prefilled = new AtomicBoolean();
+
+        KeyedPool(String jdbcUrl, String user, String password) {
+            this.jdbcUrl = jdbcUrl;
+            this.user = user;
+            this.password = password;
+            this.permits = new Semaphore(config.maxSize, true);
+        }
+
+        /** Opens minSize idle connections the first time the key is used; a failure is left to borrow(). */
+        void prefill() {
+            if (config.minSize <= 0 || !prefilled.compareAndSet(false, true)) {
+                return;
+            }
+            int target = Math.min(config.minSize, config.maxSize);
+            try {
+                while (idle.size() + active.get() < target) {
+                    Connection physical = DriverManager.getConnection(jdbcUrl, user, password);
+                    created.incrementAndGet();
+                    idle.offerLast(new IdleConnection(physical, System.currentTimeMillis()));
+                }
+            } catch (SQLException ex) {
+                LOG.warn("could not pre-open " + target + " connection(s) to " + jdbcUrl + ": " + ex.getMessage());
+            }
+        }
+
+        Connection borrow() throws SQLException {
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(config.borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SQLException("Timed out after " + config.borrowTimeoutMillis + "ms waiting for connection to " + jdbcUrl);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for connection to " + jdbcUrl, ex);
+            }
+
+            Connection physical;
+            try {
+                physical = takeValidIdle();
+                if (physical == null) {
+                    physical = DriverManager.getConnection(jdbcUrl, user, password);
+                    created.incrementAndGet();
+                }
+            } catch (SQLException | RuntimeException ex) {
+                permits.release();
+                throw ex;
+            }
+
+            long waited = System.nanoTime() - start;
+            borrows.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            active.incrementAndGet();
+            return wrap(physical);
+        }
+
+        private Connection takeValidIdle() {
+            IdleConnection candidate;
+            long now = System.currentTimeMillis();
+            while ((candidate = idle.pollFirst()) != null) {
+                // Connections within minSize are kept regardless of age and only revalidated below.
+                if (now - candidate.idleSince > config.maxIdleMillis && idle.size() + active.get() >= config.minSize) {
+                    discard(candidate.physical);
+                    evicted.incrementAndGet();
+                    continue;
+                }
+                try {
+                    if (candidate.physical.isValid(config.validationTimeoutSeconds)) {
+                        return candidate.physical;
+                    }
+                } catch (SQLException ignored) {
+                    // fall through to discard
+                }
+                validationFailures.incrementAndGet();
+                discard(candidate.physical);
+            }
+            return null;
+        }
+
+        void release(Connection physical) {
+            active.decrementAndGet();
+            try {
+                if (physical.isClosed()) {
+                    return;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                idle.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            } catch (SQLException ex) {
+                discard(physical);
+            } finally {
+                permits.release();
+            }
+        }
+
+        void evictIdle() {
+            long now = System.currentTimeMillis();
+            int keep = config.minSize;
+            List<IdleConnection> retained = new ArrayList<>();
+            IdleConnection c;
+            while ((c = idle.pollFirst()) != null) {
+                if (retained.size() < keep || now - c.idleSince <= config.maxIdleMillis) {
+                    retained.add(c);
+                } else {
+                    discard(c.physical);
+                    evicted.incrementAndGet();
+                }
+            }
+            for (IdleConnection r : retained) {
+                idle.offerLast(r);
+            }
+        }
+
+        void close() {
+            IdleConnection c;
+            while ((c = idle.pollFirst()) != null) {
+                discard(c.physical);
+            }
+        }
+
+        PoolMetrics snapshot() {
+            PoolMetrics m = new PoolMetrics();
+            m.active = active.get();
+            m.idle = idle.size();
+            m.borrows = borrows.get();
+            m.created = created.get();
+            m.evicted = evicted.get();
+            m.validationFailures = validationFailures.get();
+            m.totalBorrowWaitNanos = totalWaitNanos.get();
+            m.maxBorrowWaitNanos = maxWaitNanos.get();
+            m.statementCacheHits = statementHits.get();
+            m.statementCacheMisses = statementMisses.get();
+            return m;
+        }
+
+        private void discard(Connection physical) {
+            statements.remove(physical);
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // already unusable
+            }
+        }
+
+        private Connection wrap(Connection physical) {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean returned = false;
+
+                @Override
+                public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if ("close".equals(name)) {
+                        if (!returned) {
+                            returned = true;
+                            StatementCache cache = statements.get(physical);
+                            if (cache != null) cache.releaseAll();
+                            release(physical);
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(name)) {
+                        return returned || physical.isClosed();
+                    }
+                    if (returned) {
+                        throw new SQLException("Connection already returned to pool");
+                    }
+                    if ("prepareStatement".equals(name) && args.length == 1 && config.statementCacheSize > 0) {
+                        return statements.computeIfAbsent(physical, StatementCache::new).prepare((String) args[0]);
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    handler);
+        }
+
+        /** Per-connection LRU of prepared statements; used by one borrower at a time. */
+        private final class StatementCache {
+            final Connection physical;
+            final Map<PreparedStatement, String> inUse = new IdentityHashMap<>();
+            final LinkedHashMap<String, PreparedStatement> lru = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= config.statementCacheSize) return false;
+                    if (!inUse.containsKey(eldest.getValue())) closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+
+            StatementCache(Connection physical) {
+                this.physical = physical;
+            }
+
+            synchronized PreparedStatement prepare(String sql) throws SQLException {
+                PreparedStatement stmt = lru.get(sql);
+                if (stmt != null && inUse.containsKey(stmt)) {
+                    // Same SQL already open on this connection: hand out a plain, uncached statement.
+                    return physical.prepareStatement(sql);
+                }
+                if (stmt == null || stmt.isClosed()) {
+                    stmt = physical.prepareStatement(sql);
+                    lru.put(sql, stmt);
+                    statementMisses.incrementAndGet();
+                } else {
+                    statementHits.incrementAndGet();
+                }
+                inUse.put(stmt, sql);
+                return wrapStatement(sql, stmt);
+            }
+
+            synchronized void release(String sql, PreparedStatement stmt) {
+                if (inUse.remove(stmt) == null) {
+                    return;
+                }
+                if (lru.get(sql) != stmt) {
+                    closeQuietly(stmt);
+                    return;
+                }
+                try {
+                    stmt.clearParameters();
+                } catch (SQLException ex) {
+                    lru.remove(sql);
+                    closeQuietly(stmt);
+                }
+            }
+
+            synchronized void releaseAll() {
+                for (Map.Entry<PreparedStatement, String> e : new ArrayList<>(inUse.entrySet())) {
+                    release(e.getValue(), e.getKey());
+                }
+            }
+
+            private PreparedStatement wrapStatement(String sql, PreparedStatement stmt) {
+                InvocationHandler handler = new InvocationHandler() {
+                    private boolean closed = false;
+
+                    @Override
+                    public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+                        if ("close".equals(name)) {
+                            if (!closed) {
+                                closed = true;
+                                release(sql, stmt);
+                            }
+                            return null;
+                        }
+                        if ("isClosed".equals(name)) {
+                            return closed || stmt.isClosed();
+                        }
+                        if (closed) {
+                            throw new SQLException("Statement already closed");
+                        }
+                        try {
+                            return method.invoke(stmt, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    }
+                };
+                return (PreparedStatement) Proxy.newProxyInstance(
+                        ConnectionPool.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class},
+                        handler);
+            }
+
+            private void closeQuietly(PreparedStatement stmt) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                    // connection already unusable
+                }
+            }
+        }
+    }
+}
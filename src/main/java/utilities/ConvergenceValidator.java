@@ -0,0 +1,187 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Publishes the payload events one by one through {@link EventTrigger} and then polls MySQL until every
+ * expected lookup key is visible or the deadline, counted from the start of publishing, passes. Polling is
+ * batched per table (one IN query per table per round) and backs off exponentially while nothing new
+ * appears, dropping back towards the initial delay whenever a round makes progress. A round that fails
+ * with a SQLException counts as one without progress.
+ *
+ * Propagation latency is measured per event from its publish send time to the poll round that first
+ * saw all of its rows, so it is accurate to within the current poll delay.
+ */
+public class ConvergenceValidator {
+    private static final Log LOG = Log.get("Convergence");
+
+    private final EventTrigger trigger;
+    private final databasecolumnUtil dbUtil;
+    private final String host;
+    private final int port;
+    private final String database;
+    private final String user;
+    private final String password;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public Duration initialDelay = Duration.ofMillis(Long.getLong("convergence.initialDelayMillis", 100));
+    public Duration maxDelay = Duration.ofMillis(Long.getLong("convergence.maxDelayMillis", 5_000));
+    public double backoffMultiplier = 2.0;
+
+    public ConvergenceValidator(EventTrigger trigger, databasecolumnUtil dbUtil, String host, int port, String database, String user, String password) {
+        this.trigger = trigger;
+        this.dbUtil = dbUtil;
+        this.host = host;
+        this.port = port;
+        this.database = database;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * @param expectations lookup keys that must become visible, keyed by payload event id
+     */
+    public ConvergenceReport publishAndAwait(String connectionString, Path payloadPath, Map<String, List<Expectation>> expectations, Duration deadline)
+            throws IOException, InterruptedException {
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        ConvergenceReport report = new ConvergenceReport();
+        Map<String, Long> publishedAt = new HashMap<>();
+        List<CompletableFuture<EventPublisher.PublishResult>> sends = new ArrayList<>();
+        List<String> sendIds = new ArrayList<>();
+        PayloadReader reader = new PayloadReader(mapper);
+
+        trigger.azureEventTriggerEach(connectionString, payloadPath.toString(), (event, send) -> {
+            PayloadReader.PayloadRecord record = reader.recordOf(event);
+            String eventId = record == null ? "" : record.eventId;
+            publishedAt.putIfAbsent(eventId, System.nanoTime());
+            sendIds.add(eventId);
+            sends.add(send);
+        });
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                EventPublisher.PublishResult r = sends.get(i).get();
+                if (!r.isSuccess()) report.publishFailures.put(sendIds.get(i), "HTTP " + r.statusCode);
+            } catch (ExecutionException ex) {
+                report.publishFailures.put(sendIds.get(i), String.valueOf(ex.getCause()));
+            }
+        }
+
+        Map<String, Set<Expectation>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Expectation>> e : expectations.entrySet()) {
+            if (report.publishFailures.containsKey(e.getKey())) continue;
+            if (!e.getValue().isEmpty()) pending.put(e.getKey(), new LinkedHashSet<>(e.getValue()));
+        }
+
+        long delay = initialDelay.toNanos();
+        while (!pending.isEmpty()) {
+            report.pollRounds++;
+            boolean progress;
+            try {
+                progress = pollOnce(pending, publishedAt, report);
+            } catch (SQLException ex) {
+                report.pollErrors++;
+                LOG.warn("poll round " + report.pollRounds + " failed, backing off: " + ex.getMessage());
+                progress = false;
+            }
+            if (pending.isEmpty()) break;
+
+            long now = System.nanoTime();
+            if (now >= deadlineAt) break;
+            delay = progress
+                    ? Math.max(initialDelay.toNanos(), delay / 2)
+                    : Math.min(maxDelay.toNanos(), (long) (delay * backoffMultiplier));
+            long sleep = Math.min(delay, deadlineAt - now);
+            Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+        }
+
+        report.timedOut.addAll(pending.keySet());
+        return report;
+    }
+
+    private boolean pollOnce(Map<String, Set<Expectation>> pending, Map<String, Long> publishedAt, ConvergenceReport report) throws SQLException {
+        Map<String, List<LinkedHashMap<String, String>>> byTable = new LinkedHashMap<>();
+        for (Set<Expectation> keys : pending.values()) {
+            for (Expectation x : keys) {
+                byTable.computeIfAbsent(x.table, k -> new ArrayList<>()).add(x.criteria);
+            }
+        }
+
+        Set<Expectation> visible = new HashSet<>();
+        for (Map.Entry<String, List<LinkedHashMap<String, String>>> e : byTable.entrySet()) {
+            // Only visibility matters here, so fetch the key columns alone.
+            Map<LinkedHashMap<String, String>, RowSet> rows = dbUtil.fetchRowSetsByCriteriaBatch(
+                    host, port, database, user, password, e.getKey(), Collections.emptyList(), e.getValue());
+            for (Map.Entry<LinkedHashMap<String, String>, RowSet> r : rows.entrySet()) {
+                if (r.getValue() != null && !r.getValue().isEmpty()) {
+                    visible.add(new Expectation(e.getKey(), r.getKey()));
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        boolean progress = false;
+        Iterator<Map.Entry<String, Set<Expectation>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Set<Expectation>> e = it.next();
+            progress |= e.getValue().removeAll(visible);
+            if (e.getValue().isEmpty()) {
+                it.remove();
+                Long sent = publishedAt.get(e.getKey());
+                long latency = sent == null ? 0 : now - sent;
+                report.latencyNanos.put(e.getKey(), latency);
+                report.propagation.record(latency);
+            }
+        }
+        return progress;
+    }
+
+    public static final class Expectation {
+        public final String table;
+        public final LinkedHashMap<String, String> criteria;
+
+        public Expectation(String table, LinkedHashMap<String, String> criteria) {
+            this.table = table;
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Expectation)) return false;
+            Expectation other = (Expectation) o;
+            return table.equals(other.table) && criteria.equals(other.criteria);
+        }
+
+        @Override
+        public int hashCode() {
+            return table.hashCode() * 31 + criteria.hashCode();
+        }
+    }
+
+    public static class ConvergenceReport {
+        public final Map<String, Long> latencyNanos = new LinkedHashMap<>();
+        public final LatencyHistogram propagation = new LatencyHistogram();
+        public final List<String> timedOut = new ArrayList<>();
+        public final Map<String, String> publishFailures = new LinkedHashMap<>();
+        public int pollRounds;
+        public int pollErrors;
+
+        public boolean converged() {
+            return timedOut.isEmpty() && publishFailures.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "converged=" + latencyNanos.size() + " timedOut=" + timedOut.size() + " publishFailures=" + publishFailures.size()
+                    + " pollRounds=" + pollRounds + " pollErrors=" + pollErrors
+                    + "\n  propagation(ms): " + propagation.summary(1_000_000.0, "");
+        }
+    }
+}
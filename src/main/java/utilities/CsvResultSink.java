@@ -0,0 +1,68 @@
+package utilities;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Buffered CSV writer for column results with the given statuses, one line per result in the
+ * table,columnname,order/id,expected,actual,status layout of the pass report.
+ */
+public class CsvResultSink implements ResultSink {
+    private final Path file;
+    private final Set<JsonCompare.Status> statuses;
+    private final BufferedWriter out;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public CsvResultSink(Path file, Set<JsonCompare.Status> statuses) throws IOException {
+        this.file = file;
+        this.statuses = statuses;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        out.write("table,columnname,order/id,expected,actual,status");
+        out.newLine();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public synchronized void write(JsonCompare.ValidationReport report) throws IOException {
+        for (JsonCompare.ColumnResult r : report.results) {
+            if (!statuses.contains(r.status)) {
+                continue;
+            }
+            line.setLength(0);
+            cell(report.tableName).append(',');
+            cell(r.column()).append(',');
+            cell(report.eventId).append(',');
+            cell(ResultSink.normalizeCell(r.expected)).append(',');
+            cell(ResultSink.normalizeCell(r.actual)).append(',');
+            cell(r.status.name());
+            out.append(line);
+            out.newLine();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private StringBuilder cell(String value) {
+        String val = value == null ? "" : value;
+        return line.append('"').append(val.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,76 @@
+package utilities;
+
+/**
+ * Hand-written scanner for "yyyy-MM-dd[ T]HH:mm:ss(.S+)" with an optional "Z" or "+hh[:]mm" offset.
+ * Equivalent to the regexes it replaces but without Pattern/Matcher allocation per value.
+ */
+public final class DateTimeMatcher implements ValueMatcher {
+    /** Local datetime only; same as the default "time" rule pattern. */
+    public static final DateTimeMatcher LOCAL = new DateTimeMatcher(false, false);
+    /** Local or zoned datetime, surrounding whitespace ignored; used for datetime auto-detection. */
+    public static final DateTimeMatcher ANY = new DateTimeMatcher(true, true);
+
+    private final boolean allowOffset;
+    private final boolean trim;
+
+    private DateTimeMatcher(boolean allowOffset, boolean trim) {
+        this.allowOffset = allowOffset;
+        this.trim = trim;
+    }
+
+    @Override
+    public boolean matches(String v) {
+        if (v == null) return false;
+        int start = 0;
+        int end = v.length();
+        if (trim) {
+            while (start < end && v.charAt(start) <= ' ') start++;
+            while (end > start && v.charAt(end - 1) <= ' ') end--;
+        }
+        if (end - start < 19) return false;
+
+        int i = start;
+        if (!digits(v, i, 4) || v.charAt(i + 4) != '-') return false;
+        i += 5;
+        if (!digits(v, i, 2) || v.charAt(i + 2) != '-') return false;
+        i += 3;
+        if (!digits(v, i, 2)) return false;
+        i += 2;
+        char sep = v.charAt(i++);
+        if (sep != ' ' && sep != 'T') return false;
+        if (!digits(v, i, 2) || v.charAt(i + 2) != ':') return false;
+        i += 3;
+        if (!digits(v, i, 2) || v.charAt(i + 2) != ':') return false;
+        i += 3;
+        if (!digits(v, i, 2)) return false;
+        i += 2;
+
+        if (i < end && v.charAt(i) == '.') {
+            int fracStart = ++i;
+            while (i < end && isDigit(v.charAt(i))) i++;
+            if (i == fracStart) return false;
+        }
+        if (i == end) return true;
+        if (!allowOffset) return false;
+
+        char z = v.charAt(i);
+        if (z == 'Z') return i + 1 == end;
+        if (z != '+' && z != '-') return false;
+        i++;
+        if (end - i < 4 || !digits(v, i, 2)) return false;
+        i += 2;
+        if (v.charAt(i) == ':') i++;
+        return end - i == 2 && digits(v, i, 2);
+    }
+
+    private static boolean digits(CharSequence v, int from, int count) {
+        for (int k = from; k < from + count; k++) {
+            if (!isDigit(v.charAt(k))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
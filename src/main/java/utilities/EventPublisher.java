@@ -0,0 +1,96 @@
+package utilities;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Long-lived event publisher around one HttpClient (HTTP/2 preferred, connections reused across calls).
+ * At most maxInFlight requests are outstanding; publish() blocks the caller once the window is full,
+ * which gives load generators natural backpressure.
+ *
+ * Defaults come from system properties: event.publish.maxInFlight, event.publish.timeoutMillis,
+ * event.publish.connectTimeoutMillis.
+ */
+public class EventPublisher {
+    private static final EventPublisher SHARED = new EventPublisher(
+            Integer.getInteger("event.publish.maxInFlight", 64),
+            Duration.ofMillis(Long.getLong("event.publish.timeoutMillis", 30_000)),
+            Duration.ofMillis(Long.getLong("event.publish.connectTimeoutMillis", 10_000)));
+
+    private final HttpClient client;
+    private final Semaphore window;
+    private final int windowSize;
+    private final Duration requestTimeout;
+
+    public EventPublisher(int maxInFlight, Duration requestTimeout, Duration connectTimeout) {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build(), maxInFlight, requestTimeout);
+    }
+
+    public EventPublisher(HttpClient client, int maxInFlight, Duration requestTimeout) {
+        this.client = client;
+        this.windowSize = Math.max(1, maxInFlight);
+        this.window = new Semaphore(windowSize);
+        this.requestTimeout = requestTimeout;
+    }
+
+    public static EventPublisher shared() {
+        return SHARED;
+    }
+
+    public CompletableFuture<PublishResult> publish(URI endpoint, byte[] body, String contentType) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(endpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        try {
+            window.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> sent;
+        try {
+            sent = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException ex) {
+            window.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+        return sent.whenComplete((r, ex) -> window.release())
+                .thenApply(r -> new PublishResult(r.statusCode(), r.body(), System.nanoTime() - start, start));
+    }
+
+    public int inFlight() {
+        return windowSize - window.availablePermits();
+    }
+
+    public static class PublishResult {
+        public final int statusCode;
+        public final String body;
+        public final long latencyNanos;
+        public final long startNanos;
+
+        public PublishResult(int statusCode, String body, long latencyNanos, long startNanos) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.latencyNanos = latencyNanos;
+            this.startNanos = startNanos;
+        }
+
+        public boolean isSuccess() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+    }
+}
@@ -1,41 +1,155 @@
 package utilities;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class EventTrigger {
+    private static final Pattern ENDPOINT = Pattern.compile("Endpoint=([^;]+)");
+    private static final String BATCH_CONTENT_TYPE = "application/cloudevents-batch+json";
+    private static final String EVENT_CONTENT_TYPE = "application/cloudevents+json";
+
+    private final EventPublisher publisher;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PayloadReader payloadReader = new PayloadReader(mapper);
+    private final ResourceLoader resources = ResourceLoader.shared();
+
+    public EventTrigger() {
+        this(EventPublisher.shared());
+    }
+
+    public EventTrigger(EventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
     public String azureEventTrigger(String connectionString, String payloadPath) throws IOException, InterruptedException {
-        String payload = Files.readString(Paths.get(payloadPath), StandardCharsets.UTF_8);
-        String endpoint = extractEndpoint(connectionString);
+        try {
+            return azureEventTriggerAsync(connectionString, payloadPath).get().body;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Event publish failed", cause);
+        }
+    }
+
+    public CompletableFuture<EventPublisher.PublishResult> azureEventTriggerAsync(String connectionString, String payloadPath) throws IOException {
+        byte[] payload = resources.readBytes(Paths.get(payloadPath));
+        return publisher.publish(URI.create(extractEndpoint(connectionString)), payload, "application/json");
+    }
+
+    /**
+     * Splits the payload into individual CloudEvents and posts them as application/cloudevents-batch+json
+     * requests of at most maxEventsPerBatch events and maxBytesPerBatch bytes (a single larger event is
+     * still sent on its own). Batches are sent concurrently through the shared publisher window; the
+     * results list is in batch order and names the event ids each batch carried.
+     */
+    public List<BatchResult> azureEventTriggerBatch(String connectionString, String payloadPath, int maxEventsPerBatch, int maxBytesPerBatch)
+            throws IOException, InterruptedException {
+        URI endpoint = URI.create(extractEndpoint(connectionString));
+        int maxEvents = Math.max(1, maxEventsPerBatch);
+        int maxBytes = Math.max(2, maxBytesPerBatch);
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(endpoint))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(payload))
-                .build();
+        List<List<String>> batchIds = new ArrayList<>();
+        List<CompletableFuture<EventPublisher.PublishResult>> sends = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        List<String> ids = new ArrayList<>();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        return response.body();
+        Runnable flush = () -> {
+            body.write(']');
+            batchIds.add(new ArrayList<>(ids));
+            sends.add(publisher.publish(endpoint, body.toByteArray(), BATCH_CONTENT_TYPE));
+            body.reset();
+            ids.clear();
+        };
+
+        payloadReader.readEvents(Paths.get(payloadPath), event -> {
+            byte[] bytes;
+            try {
+                bytes = mapper.writeValueAsBytes(event);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (!ids.isEmpty() && (ids.size() >= maxEvents || body.size() + 1 + bytes.length + 1 > maxBytes)) {
+                flush.run();
+            }
+            body.write(ids.isEmpty() ? '[' : ',');
+            body.writeBytes(bytes);
+            ids.add(event.path("id").asText(""));
+        });
+        if (!ids.isEmpty()) {
+            flush.run();
+        }
+
+        List<BatchResult> results = new ArrayList<>(sends.size());
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                EventPublisher.PublishResult r = sends.get(i).get();
+                results.add(new BatchResult(batchIds.get(i), r.statusCode, r.body, r.latencyNanos, null));
+            } catch (ExecutionException ex) {
+                results.add(new BatchResult(batchIds.get(i), -1, null, 0, ex.getCause()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Posts each event of the payload on its own as a structured application/cloudevents+json request,
+     * without waiting for responses; onSend receives every event with its pending result, in payload order.
+     */
+    public void azureEventTriggerEach(String connectionString, String payloadPath,
+                                      BiConsumer<JsonNode, CompletableFuture<EventPublisher.PublishResult>> onSend) throws IOException {
+        URI endpoint = URI.create(extractEndpoint(connectionString));
+        payloadReader.readEvents(Paths.get(payloadPath), event -> {
+            byte[] body;
+            try {
+                body = mapper.writeValueAsBytes(event);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            onSend.accept(event, publisher.publish(endpoint, body, EVENT_CONTENT_TYPE));
+        });
     }
 
-    private String extractEndpoint(String connectionString) {
+    public static String extractEndpoint(String connectionString) {
         if (connectionString.startsWith("http")) {
             return connectionString;
         }
-        Pattern p = Pattern.compile("Endpoint=([^;]+)");
-        Matcher m = p.matcher(connectionString);
+        Matcher m = ENDPOINT.matcher(connectionString);
         if (m.find()) {
             return m.group(1);
         }
         throw new IllegalArgumentException("Unsupported connection string format for endpoint.");
     }
+
+    public static class BatchResult {
+        public final List<String> eventIds;
+        public final int statusCode;
+        public final String body;
+        public final long latencyNanos;
+        public final Throwable error;
+
+        public BatchResult(List<String> eventIds, int statusCode, String body, long latencyNanos, Throwable error) {
+            this.eventIds = eventIds;
+            this.statusCode = statusCode;
+            this.body = body;
+            this.latencyNanos = latencyNanos;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return error == null && statusCode >= 200 && statusCode < 300;
+        }
+    }
 }
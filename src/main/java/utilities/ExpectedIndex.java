@@ -0,0 +1,139 @@
+package utilities;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Expected rows of one table, loaded in a single streaming pass and indexed by event id and order id.
+ * Field names are normalized ('-' to '_'), rows rejected by the filter are dropped, and structurally
+ * equal rows are stored once. Lookups return rows in file order.
+ */
+public class ExpectedIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final List<JsonNode> rows = new ArrayList<>();
+    private final Map<String, int[]> byEventId = new HashMap<>();
+    private final Map<String, int[]> byOrderId = new HashMap<>();
+    private int totalRows;
+
+    public static ExpectedIndex build(ObjectMapper mapper, Path expectedFile, List<String> idColumns, List<String> orderIdColumns,
+                                      Predicate<JsonNode> filter) throws IOException {
+        try (InputStream in = ResourceLoader.shared().openMapped(expectedFile)) {
+            return build(mapper, in, expectedFile.toString(), idColumns, orderIdColumns, filter);
+        }
+    }
+
+    public static ExpectedIndex build(ObjectMapper mapper, InputStream in, String source, List<String> idColumns, List<String> orderIdColumns,
+                                      Predicate<JsonNode> filter) throws IOException {
+        ExpectedIndex index = new ExpectedIndex();
+        Map<String, List<Integer>> events = new HashMap<>();
+        Map<String, List<Integer>> orders = new HashMap<>();
+        Set<JsonNode> seen = new HashSet<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected file must contain a JSON array: " + source);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of expected data: " + source);
+                }
+                index.totalRows++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonNode row = normalize(mapper, mapper.readTree(parser));
+                if (!filter.test(row) || !seen.add(row)) {
+                    continue;
+                }
+                int pos = index.rows.size();
+                index.rows.add(row);
+                events.computeIfAbsent(firstPresent(row, idColumns), k -> new ArrayList<>()).add(pos);
+                orders.computeIfAbsent(firstPresent(row, orderIdColumns), k -> new ArrayList<>()).add(pos);
+            }
+        }
+
+        freeze(events, index.byEventId);
+        freeze(orders, index.byOrderId);
+        return index;
+    }
+
+    public int totalRows() {
+        return totalRows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public List<JsonNode> rows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Rows whose event id or order id equals the given value. An empty id acts as a wildcard, in
+     * which case every indexed row matches.
+     */
+    public List<JsonNode> match(String eventId, String orderId) {
+        if (eventId == null || eventId.isEmpty() || orderId == null || orderId.isEmpty()) {
+            return rows();
+        }
+        int[] a = byEventId.getOrDefault(eventId, EMPTY);
+        int[] b = byOrderId.getOrDefault(orderId, EMPTY);
+        List<JsonNode> out = new ArrayList<>(a.length + b.length);
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            out.add(rows.get(next));
+        }
+        return out;
+    }
+
+    private static void freeze(Map<String, List<Integer>> source, Map<String, int[]> target) {
+        for (Map.Entry<String, List<Integer>> e : source.entrySet()) {
+            List<Integer> positions = e.getValue();
+            int[] arr = new int[positions.size()];
+            for (int k = 0; k < arr.length; k++) arr[k] = positions.get(k);
+            target.put(e.getKey(), arr);
+        }
+    }
+
+    private static String firstPresent(JsonNode row, List<String> columns) {
+        for (String column : columns) {
+            if (column != null && row.has(column)) {
+                return row.get(column).asText();
+            }
+        }
+        return "";
+    }
+
+    private static JsonNode normalize(ObjectMapper mapper, JsonNode row) {
+        ObjectNode normalized = mapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = row.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            normalized.set(field.getKey().replace('-', '_'), field.getValue());
+        }
+        return normalized;
+    }
+}
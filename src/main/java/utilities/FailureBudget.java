@@ -0,0 +1,49 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared count of FAIL results for one run. Once {@code maxFailures} is reached the budget is exhausted
+ * and compares stop early; 0 means no limit. Fail-fast is a budget of 1.
+ */
+public final class FailureBudget {
+    public static final FailureBudget UNLIMITED = new FailureBudget(0);
+
+    private final int maxFailures;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public FailureBudget(int maxFailures) {
+        this.maxFailures = Math.max(0, maxFailures);
+    }
+
+    /** Budget from validation.failFast (true means 1) and validation.maxFailures (default 0). */
+    public static FailureBudget fromSystemProperties() {
+        if (Boolean.getBoolean("validation.failFast")) {
+            return new FailureBudget(1);
+        }
+        int max = Integer.getInteger("validation.maxFailures", 0);
+        return max > 0 ? new FailureBudget(max) : UNLIMITED;
+    }
+
+    public void recordFailure() {
+        if (maxFailures > 0) {
+            failures.incrementAndGet();
+        }
+    }
+
+    public boolean exhausted() {
+        return maxFailures > 0 && failures.get() >= maxFailures;
+    }
+
+    public boolean isLimited() {
+        return maxFailures > 0;
+    }
+
+    public int maxFailures() {
+        return maxFailures;
+    }
+
+    public int failures() {
+        return failures.get();
+    }
+}
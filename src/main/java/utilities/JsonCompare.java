@@ -2,16 +2,31 @@ package utilities;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JsonCompare {
     private final ObjectMapper mapper = new ObjectMapper();
-    private static final String DEFAULT_TIME_PATTERN = "^\\d{4}-\\d{2}-\\d{2}[ T]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?$";
+    private final ResourceLoader resources = ResourceLoader.shared();
+    private static final Log LOG = Log.get("JsonCompare");
+    private volatile FailureBudget failureBudget = FailureBudget.UNLIMITED;
+    private static final int EXPECTED_CACHE_LIMIT = Integer.getInteger("compare.expectedJsonCacheSize", 10_000);
+    private static final JsonNode NOT_JSON = new TextNode("");
+    private final Map<String, JsonNode> parsedExpected = new ConcurrentHashMap<>();
+
+    /** Shared failure limit; once exhausted, compares stop at the next column or JSON node. */
+    public void setFailureBudget(FailureBudget failureBudget) {
+        this.failureBudget = failureBudget == null ? FailureBudget.UNLIMITED : failureBudget;
+    }
+
+    public FailureBudget failureBudget() {
+        return failureBudget;
+    }
 
     public ValidationReport validateTable(
             String sourceSystem,
@@ -20,8 +35,70 @@ public class JsonCompare {
             List<Map<String, Object>> actualRows,
             JsonNode expectedArrayNode,
             Schema schema
+    ) {
+        return validateTable(sourceSystem, eventId, tableName, actualRows, null, expectedArrayNode, schema);
+    }
+
+    /**
+     * @param matchedTo for each actual row, the index of the expected row the database matched it to (the
+     *                  tuple ordinal of a batched fetch); with key columns, rows are paired on it instead of
+     *                  on key text, so collation and numeric coercion stay the server's. Null pairs on text.
+     */
+    public ValidationReport validateTable(
+            String sourceSystem,
+            String eventId,
+            String tableName,
+            List<Map<String, Object>> actualRows,
+            int[] matchedTo,
+            JsonNode expectedArrayNode,
+            Schema schema
+    ) {
+        List<ActualRow> rows = new ArrayList<>(actualRows.size());
+        for (Map<String, Object> row : actualRows) {
+            rows.add(new MapRow(row));
+        }
+        return validateRows(sourceSystem, eventId, tableName, rows, matchedTo, expectedArrayNode, schema);
+    }
+
+    public ValidationReport validateTable(
+            String sourceSystem,
+            String eventId,
+            String tableName,
+            RowSet actualRows,
+            JsonNode expectedArrayNode,
+            Schema schema
+    ) {
+        return validateTable(sourceSystem, eventId, tableName, actualRows, null, expectedArrayNode, schema);
+    }
+
+    /** As {@link #validateTable(String, String, String, List, int[], JsonNode, Schema)}. */
+    public ValidationReport validateTable(
+            String sourceSystem,
+            String eventId,
+            String tableName,
+            RowSet actualRows,
+            int[] matchedTo,
+            JsonNode expectedArrayNode,
+            Schema schema
+    ) {
+        List<ActualRow> rows = new ArrayList<>(actualRows.size());
+        for (int r = 0; r < actualRows.size(); r++) {
+            rows.add(new RowSetRow(actualRows, r));
+        }
+        return validateRows(sourceSystem, eventId, tableName, rows, matchedTo, expectedArrayNode, schema);
+    }
+
+    private ValidationReport validateRows(
+            String sourceSystem,
+            String eventId,
+            String tableName,
+            List<ActualRow> actualRows,
+            int[] matchedTo,
+            JsonNode expectedArrayNode,
+            Schema schema
     ) {
         ValidationReport report = new ValidationReport(sourceSystem, eventId, tableName);
+        report.budget = failureBudget;
 
         if (!expectedArrayNode.isArray()) {
             report.addGlobalError("Expected JSON must be an array for table " + tableName);
@@ -34,90 +111,227 @@ public class JsonCompare {
             report.addGlobalError("Row count mismatch. expected=" + expectedArrayNode.size() + " actual=" + actualRows.size());
         }
 
-        for (int i = 0; i < min; i++) {
-            JsonNode expectedRow = expectedArrayNode.get(i);
-            Map<String, Object> actualRow = actualRows.get(i);
-            compareRow(report, expectedRow, actualRow, schema);
+        long start = Metrics.start();
+        CompiledSchema compiled = schema.compiled();
+        Map<String, LatencyHistogram> columnTimers = Metrics.ENABLED ? new HashMap<>() : null;
+        if (schema.keyColumns != null && !schema.keyColumns.isEmpty()) {
+            compareByKey(report, expectedArrayNode, actualRows, matchedTo, schema.keyColumns, compiled, columnTimers);
+        } else {
+            for (int i = 0; i < min && !report.stopEarly(); i++) {
+                JsonNode expectedRow = expectedArrayNode.get(i);
+                ActualRow actualRow = actualRows.get(i);
+                compareRow(report, expectedRow, actualRow, compiled, columnTimers);
+            }
         }
 
         report.finalizeStatus();
+        if (Metrics.ENABLED) {
+            Metrics.recordSince(Metrics.shared().histogram("compare_table_seconds", "table", tableName), start);
+        }
         return report;
     }
 
-    private void compareRow(ValidationReport report, JsonNode expectedRow, Map<String, Object> actualRow, Schema schema) {
-        System.out.println("[JsonCompare] Comparing row. Expected keys=" + expectedRow.size() + " Actual keys=" + actualRow.keySet().size());
-        Iterator<String> fieldNames = expectedRow.fieldNames();
-        while (fieldNames.hasNext()) {
-            String field = fieldNames.next();
-            JsonNode expectedValueNode = expectedRow.get(field);
-
-            ColumnRule rule = schema.rules.getOrDefault(field, new ColumnRule());
+    /**
+     * Pairs rows on the key columns instead of by position. With matchedTo, each expected row takes the
+     * next unused actual row the database matched to it, preferring one whose key text is equal; otherwise
+     * actual rows are hashed on their key text once and each expected row takes the next unused row with
+     * an equal key. Expected rows missing a key column are paired by position with the actual rows left
+     * over. Rows left unpaired on either side are reported as global errors.
+     */
+    private void compareByKey(ValidationReport report, JsonNode expectedRows, List<ActualRow> actualRows, int[] matchedTo,
+                              List<String> keyColumns, CompiledSchema schema, Map<String, LatencyHistogram> columnTimers) {
+        Map<List<String>, ArrayDeque<Integer>> byKey = null;
+        List<ArrayDeque<Integer>> byOrdinal = null;
+        if (matchedTo != null) {
+            byOrdinal = new ArrayList<>(expectedRows.size());
+            for (int i = 0; i < expectedRows.size(); i++) {
+                byOrdinal.add(new ArrayDeque<>(1));
+            }
+            for (int r = 0; r < actualRows.size(); r++) {
+                if (matchedTo[r] >= 0 && matchedTo[r] < expectedRows.size()) {
+                    byOrdinal.get(matchedTo[r]).add(r);
+                }
+            }
+        } else {
+            byKey = new HashMap<>(actualRows.size() * 2);
+            for (int r = 0; r < actualRows.size(); r++) {
+                byKey.computeIfAbsent(actualKey(actualRows.get(r), keyColumns), k -> new ArrayDeque<>(1)).add(r);
+            }
+        }
 
-            if (schema.isOptional(field) && !actualRow.containsKey(field)) {
-                report.addSkipped(field, expectedValueNode.asText(), null, "Optional field missing in actual; skipped");
+        boolean[] paired = new boolean[actualRows.size()];
+        List<Integer> incompleteKeys = new ArrayList<>();
+        for (int i = 0; i < expectedRows.size() && !report.stopEarly(); i++) {
+            JsonNode expectedRow = expectedRows.get(i);
+            List<String> key = expectedKey(expectedRow, keyColumns);
+            Integer r;
+            if (byOrdinal != null) {
+                r = pollPreferringKey(byOrdinal.get(i), key, actualRows, keyColumns);
+            } else if (key.contains(null)) {
+                incompleteKeys.add(i);
                 continue;
+            } else {
+                ArrayDeque<Integer> candidates = byKey.get(key);
+                r = candidates == null ? null : candidates.poll();
             }
-
-            if (schema.isRequired(field) && !actualRow.containsKey(field)) {
-                report.addFailure(field, expectedValueNode.asText(), null, "Required field missing in actual");
+            if (r == null) {
+                report.addGlobalError("No actual row for expected key " + describeKey(keyColumns, key));
                 continue;
             }
+            paired[r] = true;
+            compareRow(report, expectedRow, actualRows.get(r), schema, columnTimers);
+        }
 
-            Object actualValueObj = actualRow.get(field);
-            String actualValue = normalize(actualValueObj);
-            String expectedValue = normalize(expectedValueNode.isNull() ? null : expectedValueNode.asText());
-
-            boolean expectedIsJsonNode = expectedValueNode.isObject() || expectedValueNode.isArray();
-            boolean actualLooksJson = isJsonLike(actualValue);
-            boolean expectedLooksJson = isJsonLike(expectedValue);
+        int next = 0;
+        for (int i : incompleteKeys) {
+            if (report.stopEarly()) break;
+            while (next < paired.length && paired[next]) next++;
+            if (next == paired.length) {
+                report.addGlobalError("No actual row for expected row " + i + " with incomplete key "
+                        + describeKey(keyColumns, expectedKey(expectedRows.get(i), keyColumns)));
+                continue;
+            }
+            paired[next] = true;
+            compareRow(report, expectedRows.get(i), actualRows.get(next), schema, columnTimers);
+        }
 
-            if ((expectedIsJsonNode || actualLooksJson || expectedLooksJson) && (rule.type == null || rule.type.isEmpty())) {
-                // Auto-detect JSON columns when DB stores JSON as text
-                if (isJsonSchemaEmpty(rule)) {
-                    report.addFailure(field, expectedValue, actualValue, "JSON detected but no column schema found for table=" + report.tableName + ", column=" + field);
-                    continue;
-                }
-                rule.type = "json";
+        if (report.truncated) {
+            return;
+        }
+        for (int r = 0; r < paired.length; r++) {
+            if (!paired[r]) {
+                report.addGlobalError("No expected row for actual key " + describeKey(keyColumns, actualKey(actualRows.get(r), keyColumns)));
             }
+        }
+    }
 
-            if ("time".equalsIgnoreCase(rule.type)) {
-                if (actualValue != null && actualValue.matches(rule.timePattern != null ? rule.timePattern : DEFAULT_TIME_PATTERN)) {
-                    report.addPass(field, "TIME_FORMAT", actualValue);
-                } else {
-                    report.addFailure(field, "TIME_FORMAT", actualValue, "Time format invalid");
+    /** Removes and returns the candidate whose key text equals key, else the first one; null when none. */
+    private static Integer pollPreferringKey(ArrayDeque<Integer> candidates, List<String> key, List<ActualRow> actualRows, List<String> keyColumns) {
+        if (candidates.size() > 1 && !key.contains(null)) {
+            for (Iterator<Integer> it = candidates.iterator(); it.hasNext(); ) {
+                Integer r = it.next();
+                if (key.equals(actualKey(actualRows.get(r), keyColumns))) {
+                    it.remove();
+                    return r;
                 }
-                continue;
             }
+        }
+        return candidates.poll();
+    }
 
-            if ("json".equalsIgnoreCase(rule.type)) {
-                handleJsonField(report, field, expectedValueNode, actualValue, rule);
-                continue;
-            }
+    private List<String> expectedKey(JsonNode expectedRow, List<String> keyColumns) {
+        List<String> key = new ArrayList<>(keyColumns.size());
+        for (String column : keyColumns) {
+            JsonNode v = expectedRow.get(column);
+            key.add(v == null || v.isNull() ? null : normalize(v.asText()));
+        }
+        return key;
+    }
 
-            if (isDateTimeLike(expectedValue) || isDateTimeLike(actualValue)) {
-                if (isDateTimeLike(actualValue)) {
-                    report.addPass(field, expectedValue, actualValue);
-                } else {
-                    report.addFailure(field, expectedValue, actualValue, "Invalid datetime");
-                }
+    private static List<String> actualKey(ActualRow row, List<String> keyColumns) {
+        List<String> key = new ArrayList<>(keyColumns.size());
+        for (String column : keyColumns) {
+            key.add(row.text(column));
+        }
+        return key;
+    }
+
+    private static String describeKey(List<String> keyColumns, List<String> key) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(keyColumns.get(i)).append('=').append(key.get(i));
+        }
+        return sb.toString();
+    }
+
+    private void compareRow(ValidationReport report, JsonNode expectedRow, ActualRow actualRow, CompiledSchema schema, Map<String, LatencyHistogram> columnTimers) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Comparing row. Expected keys=" + expectedRow.size() + " Actual keys=" + actualRow.size());
+        }
+        Iterator<String> fieldNames = expectedRow.fieldNames();
+        while (fieldNames.hasNext() && !report.stopEarly()) {
+            String field = fieldNames.next();
+            if (columnTimers == null) {
+                compareField(report, field, expectedRow.get(field), actualRow, schema);
                 continue;
             }
+            long start = System.nanoTime();
+            compareField(report, field, expectedRow.get(field), actualRow, schema);
+            columnTimers.computeIfAbsent(field, f -> Metrics.shared().histogram("compare_column_seconds", "table", report.tableName, "column", f))
+                    .record(System.nanoTime() - start);
+        }
+    }
 
-            if (rule.allowed != null && !rule.allowed.isEmpty() && !rule.allowed.contains(actualValue)) {
-                report.addFailure(field, expectedValue, actualValue, "Value not in allowed set");
-                continue;
+    private void compareField(ValidationReport report, String field, JsonNode expectedValueNode, ActualRow actualRow, CompiledSchema schema) {
+        CompiledSchema.CompiledRule rule = schema.rule(field);
+
+        boolean present = actualRow.has(field);
+        if (schema.isOptional(field) && !present) {
+            report.addSkipped(field, expectedValueNode.asText(), null, Reason.OPTIONAL_MISSING);
+            return;
+        }
+
+        if (schema.isRequired(field) && !present) {
+            report.addFailure(field, expectedValueNode.asText(), null, Reason.REQUIRED_MISSING);
+            return;
+        }
+
+        String actualValue = actualRow.text(field);
+        String expectedValue = normalize(expectedValueNode.isNull() ? null : expectedValueNode.asText());
+
+        boolean expectedIsJsonNode = expectedValueNode.isObject() || expectedValueNode.isArray();
+        boolean actualLooksJson = isJsonLike(actualValue);
+        boolean expectedLooksJson = isJsonLike(expectedValue);
+
+        boolean treatAsJson = rule.json;
+        if ((expectedIsJsonNode || actualLooksJson || expectedLooksJson) && !rule.typed) {
+            // Auto-detect JSON columns when DB stores JSON as text
+            if (rule.jsonSchemaEmpty) {
+                report.addFailure(field, expectedValue, actualValue, Reason.JSON_WITHOUT_SCHEMA,
+                    "JSON detected but no column schema found for table=" + report.tableName + ", column=" + field);
+                return;
             }
+            treatAsJson = true;
+        }
 
-            if (rule.notNull && (actualValue == null || actualValue.isEmpty() || "N".equalsIgnoreCase(actualValue))) {
-                report.addFailure(field, expectedValue, actualValue, "Null/empty/N not allowed by schema");
-                continue;
+        if (rule.time) {
+            if (actualValue != null && rule.timeMatcher.matches(actualValue)) {
+                report.addPass(field, "TIME_FORMAT", actualValue);
+            } else {
+                report.addFailure(field, "TIME_FORMAT", actualValue, Reason.TIME_FORMAT_INVALID);
             }
+            return;
+        }
 
-            if (valuesEqual(expectedValue, actualValue)) {
+        if (treatAsJson) {
+            handleJsonField(report, field, expectedValueNode, actualValue, rule);
+            return;
+        }
+
+        if (isDateTimeLike(expectedValue) || isDateTimeLike(actualValue)) {
+            if (isDateTimeLike(actualValue)) {
                 report.addPass(field, expectedValue, actualValue);
             } else {
-                report.addFailure(field, expectedValue, actualValue, "Mismatch");
+                report.addFailure(field, expectedValue, actualValue, Reason.INVALID_DATETIME);
             }
+            return;
+        }
+
+        if (!rule.allowed.isEmpty() && !rule.allowed.contains(actualValue)) {
+            report.addFailure(field, expectedValue, actualValue, Reason.NOT_IN_ALLOWED_SET);
+            return;
+        }
+
+        if (rule.notNull && (actualValue == null || actualValue.isEmpty() || "N".equalsIgnoreCase(actualValue))) {
+            report.addFailure(field, expectedValue, actualValue, Reason.NULL_NOT_ALLOWED);
+            return;
+        }
+
+        if (valuesEqual(expectedValue, actualValue)) {
+            report.addPass(field, expectedValue, actualValue);
+        } else {
+            report.addFailure(field, expectedValue, actualValue, Reason.MISMATCH);
         }
     }
 
@@ -137,21 +351,9 @@ public class JsonCompare {
         return (s.startsWith("{") && s.endsWith("}")) || (s.startsWith("[") && s.endsWith("]"));
     }
 
-    private boolean isJsonSchemaEmpty(ColumnRule rule) {
-        if (rule == null) return true;
-        boolean hasReq = rule.jsonRequiredFields != null && !rule.jsonRequiredFields.isEmpty();
-        boolean hasReqPaths = rule.jsonRequiredPaths != null && !rule.jsonRequiredPaths.isEmpty();
-        boolean hasOpt = rule.jsonOptionalPaths != null && !rule.jsonOptionalPaths.isEmpty();
-        boolean hasIgnore = rule.jsonIgnorePaths != null && !rule.jsonIgnorePaths.isEmpty();
-        return !(hasReq || hasReqPaths || hasOpt || hasIgnore);
-    }
-
     private boolean isDateTimeLike(String v) {
-        if (v == null) return false;
-        String s = v.trim();
-        if (s.isEmpty()) return false;
         // Accept common datetime patterns: "yyyy-MM-dd HH:mm:ss(.S)" or ISO-like "yyyy-MM-ddTHH:mm:ss(.S)(Z|+hh:mm)?"
-        return s.matches("^\\d{4}-\\d{2}-\\d{2}[ T]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?(Z|[+-]\\d{2}:?\\d{2})?$");
+        return DateTimeMatcher.ANY.matches(v);
     }
 
     private String normalize(Object v) {
@@ -159,78 +361,74 @@ public class JsonCompare {
         return String.valueOf(v).trim();
     }
 
-    private void handleJsonField(ValidationReport report, String field, JsonNode expectedValueNode, String actualValue, ColumnRule rule) {
+    private void handleJsonField(ValidationReport report, String field, JsonNode expectedValueNode, String actualValue, CompiledSchema.CompiledRule rule) {
         if (actualValue == null || actualValue.isEmpty()) {
-            if (rule.jsonRequiredFields != null && !rule.jsonRequiredFields.isEmpty()) {
-                report.addFailure(field, expectedValueNode.toString(), actualValue, "JSON field missing");
+            if (!rule.jsonRequiredFields.isEmpty()) {
+                report.addFailure(field, expectedValueNode.toString(), actualValue, Reason.JSON_FIELD_MISSING);
             } else {
-                report.addSkipped(field, expectedValueNode.toString(), actualValue, "JSON field missing; skipped");
+                report.addSkipped(field, expectedValueNode.toString(), actualValue, Reason.JSON_FIELD_MISSING_SKIPPED);
             }
             return;
         }
 
+        long parseStart = Metrics.start();
         JsonNode actualJson;
         try {
             actualJson = mapper.readTree(actualValue);
         } catch (Exception ex) {
-            report.addFailure(field, expectedValueNode.toString(), actualValue, "Invalid JSON in actual");
+            report.addFailure(field, expectedValueNode.toString(), actualValue, Reason.INVALID_JSON);
             return;
         }
 
         JsonNode expectedJson = null;
         if (!expectedValueNode.isNull() && !expectedValueNode.isMissingNode()) {
-            if (expectedValueNode.isTextual()) {
-                try {
-                    expectedJson = mapper.readTree(expectedValueNode.asText());
-                } catch (Exception ex) {
-                    expectedJson = expectedValueNode;
-                }
-            } else {
-                expectedJson = expectedValueNode;
-            }
+            expectedJson = expectedValueNode.isTextual() ? parseExpected(expectedValueNode) : expectedValueNode;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordSince(Metrics.shared().histogram("json_parse_seconds", "table", report.tableName), parseStart);
         }
 
-        if ("requiredOnly".equalsIgnoreCase(rule.jsonValidateMode)) {
-            validateRequiredOnly(report, field, expectedValueNode, actualJson, rule);
+        JsonPathTrie trie = rule.requiredTrie;
+        JsonNode[] expectedAt = new JsonNode[trie.size()];
+        JsonNode[] actualAt = new JsonNode[trie.size()];
+        trie.resolve(expectedJson, actualJson, expectedAt, actualAt);
+        int fields = rule.jsonRequiredFields.size();
+
+        if (rule.requiredOnly) {
+            validateRequiredOnly(report, field, rule, expectedAt, actualAt);
             return;
         }
 
-        if (rule.jsonRequiredFields != null) {
-            for (String req : rule.jsonRequiredFields) {
-                if (!jsonPathExists(actualJson, req)) {
-                    String expectedAtPath = expectedJsonValueForPath(expectedJson, req);
-                    report.addFailure(field + "." + req, expectedAtPath, null, "Required JSON field missing");
-                }
+        for (int i = 0; i < fields; i++) {
+            if (!exists(actualAt[i])) {
+                report.addFailure(field + "." + rule.jsonRequiredFields.get(i), expectedText(expectedAt[i]), null, Reason.REQUIRED_JSON_FIELD_MISSING);
             }
         }
-        if (rule.jsonRequiredPaths != null) {
-            for (String req : rule.jsonRequiredPaths) {
-                if (!jsonPathExists(actualJson, req)) {
-                    String expectedAtPath = expectedJsonValueForPath(expectedJson, req);
-                    report.addFailure(field + "." + req, expectedAtPath, null, "Required JSON path missing");
-                }
+        for (int i = 0; i < rule.jsonRequiredPaths.size(); i++) {
+            if (!exists(actualAt[fields + i])) {
+                report.addFailure(field + "." + rule.jsonRequiredPaths.get(i), expectedText(expectedAt[fields + i]), null, Reason.REQUIRED_JSON_PATH_MISSING);
             }
         }
 
         if (expectedJson != null && expectedJson.isObject()) {
-            compareJsonNodes(report, field, field, expectedJson, actualJson, rule);
+            compareJsonNodes(report, field, expectedJson, actualJson, rule);
         } else if (expectedJson != null && expectedJson.isArray()) {
-            compareJsonNodes(report, field, field, expectedJson, actualJson, rule);
+            compareJsonNodes(report, field, expectedJson, actualJson, rule);
         } else if (expectedJson != null && !expectedJson.isMissingNode()) {
             if (valuesEqual(expectedJson.asText(), actualJson.asText())) {
                 report.addPass(field, expectedJson.asText(), actualJson.asText());
             } else {
-                report.addFailure(field, expectedJson.asText(), actualJson.asText(), "JSON value mismatch");
+                report.addFailure(field, expectedJson.asText(), actualJson.asText(), Reason.JSON_VALUE_MISMATCH);
             }
         } else {
             report.addPass(field, "<json>", actualJson.toString());
         }
     }
 
-    private void compareJsonNodes(ValidationReport report, String columnName, String fieldPrefix, JsonNode expected, JsonNode actual, ColumnRule rule) {
-        if (expected == null) return;
-        if (isIgnoredJsonPath(rule, columnName, fieldPrefix)) {
-            report.addSkipped(fieldPrefix, expected.toString(), actual == null ? null : actual.toString(), "Ignored JSON path");
+    private void compareJsonNodes(ValidationReport report, String fieldPrefix, JsonNode expected, JsonNode actual, CompiledSchema.CompiledRule rule) {
+        if (expected == null || report.stopEarly()) return;
+        if (rule.isIgnoredPath(fieldPrefix)) {
+            report.addSkipped(fieldPrefix, expected.toString(), actual == null ? null : actual.toString(), Reason.IGNORED_JSON_PATH);
             return;
         }
         if (expected.isObject()) {
@@ -241,76 +439,43 @@ public class JsonCompare {
                 JsonNode actChild = actual != null ? actual.get(name) : null;
                 if (actChild == null || actChild.isMissingNode()) {
                     String fullPath = fieldPrefix + "." + name;
-                    if (isRequiredJsonField(rule, columnName, fullPath, name)) {
-                        report.addFailure(fullPath, expChild.toString(), null, "Missing JSON field");
+                    if (rule.isRequiredJsonField(fullPath, name)) {
+                        report.addFailure(fullPath, expChild.toString(), null, Reason.MISSING_JSON_FIELD);
                     } else {
-                        report.addSkipped(fullPath, expChild.toString(), null, "Not required; missing in actual");
+                        report.addSkipped(fullPath, expChild.toString(), null, Reason.NOT_REQUIRED_MISSING);
                     }
                     continue;
                 }
-                compareJsonNodes(report, columnName, fieldPrefix + "." + name, expChild, actChild, rule);
+                compareJsonNodes(report, fieldPrefix + "." + name, expChild, actChild, rule);
             }
         } else if (expected.isArray()) {
             int min = Math.min(expected.size(), actual != null ? actual.size() : 0);
             for (int i = 0; i < min; i++) {
-                compareJsonNodes(report, columnName, fieldPrefix + "[" + i + "]", expected.get(i), actual.get(i), rule);
+                compareJsonNodes(report, fieldPrefix + "[" + i + "]", expected.get(i), actual.get(i), rule);
             }
             if (actual == null || expected.size() != actual.size()) {
                 String name = lastJsonSegment(fieldPrefix);
-                if (isRequiredJsonField(rule, columnName, fieldPrefix, name)) {
-                    report.addFailure(fieldPrefix, "array size=" + expected.size(), actual == null ? "null" : "array size=" + actual.size(), "Array size mismatch");
+                if (rule.isRequiredJsonField(fieldPrefix, name)) {
+                    report.addFailure(fieldPrefix, "array size=" + expected.size(), actual == null ? "null" : "array size=" + actual.size(), Reason.ARRAY_SIZE_MISMATCH);
                 } else {
-                    report.addSkipped(fieldPrefix, "array size=" + expected.size(), actual == null ? "null" : "array size=" + actual.size(), "Not required; array size mismatch");
+                    report.addSkipped(fieldPrefix, "array size=" + expected.size(), actual == null ? "null" : "array size=" + actual.size(), Reason.NOT_REQUIRED_ARRAY_SIZE_MISMATCH);
                 }
             }
         } else {
             String expVal = expected.asText();
             String actVal = actual != null ? actual.asText() : null;
             String name = lastJsonSegment(fieldPrefix);
-            boolean required = isRequiredJsonField(rule, columnName, fieldPrefix, name);
+            boolean required = rule.isRequiredJsonField(fieldPrefix, name);
             if (valuesEqual(expVal, actVal)) {
                 report.addPass(fieldPrefix, expVal, actVal);
             } else if (required) {
-                report.addFailure(fieldPrefix, expVal, actVal, "JSON value mismatch");
+                report.addFailure(fieldPrefix, expVal, actVal, Reason.JSON_VALUE_MISMATCH);
             } else {
-                report.addSkipped(fieldPrefix, expVal, actVal, "Not required; mismatch skipped");
+                report.addSkipped(fieldPrefix, expVal, actVal, Reason.NOT_REQUIRED_MISMATCH);
             }
         }
     }
 
-    private boolean isRequiredJsonField(ColumnRule rule, String columnName, String fullPath, String name) {
-        if (rule == null) return true;
-        String relative = toRelativePath(columnName, fullPath);
-        if (rule.jsonIgnorePaths != null) {
-            if (rule.jsonIgnorePaths.contains(fullPath) || rule.jsonIgnorePaths.contains(relative) || rule.jsonIgnorePaths.contains(name)) {
-                return false;
-            }
-        }
-        if (rule.jsonOptionalPaths != null) {
-            if (rule.jsonOptionalPaths.contains(fullPath) || rule.jsonOptionalPaths.contains(relative) || rule.jsonOptionalPaths.contains(name)) {
-                return false;
-            }
-        }
-        if (rule.jsonRequiredPaths != null && !rule.jsonRequiredPaths.isEmpty()) {
-            return rule.jsonRequiredPaths.contains(fullPath) || rule.jsonRequiredPaths.contains(relative) || rule.jsonRequiredPaths.contains(name);
-        }
-        return true;
-    }
-
-    private boolean isIgnoredJsonPath(ColumnRule rule, String columnName, String fullPath) {
-        if (rule == null || rule.jsonIgnorePaths == null) return false;
-        String relative = toRelativePath(columnName, fullPath);
-        return rule.jsonIgnorePaths.contains(fullPath) || rule.jsonIgnorePaths.contains(relative);
-    }
-
-    private String toRelativePath(String columnName, String fullPath) {
-        String prefix = columnName + ".";
-        if (fullPath.startsWith(prefix)) {
-            return fullPath.substring(prefix.length());
-        }
-        return fullPath;
-    }
-
     private String lastJsonSegment(String fullPath) {
         if (fullPath == null || fullPath.isEmpty()) return "";
         int dot = fullPath.lastIndexOf('.');
@@ -320,53 +485,39 @@ public class JsonCompare {
         return fullPath;
     }
 
-    private boolean jsonPathExists(JsonNode root, String path) {
-        if (root == null || path == null || path.isEmpty()) return false;
-        String[] parts = path.split("\\.");
-        JsonNode current = root;
-        for (String part : parts) {
-            if (current == null) return false;
-            int bracket = part.indexOf('[');
-            if (bracket >= 0) {
-                String field = part.substring(0, bracket);
-                if (!field.isEmpty()) {
-                    current = current.get(field);
-                }
-                while (bracket >= 0) {
-                    int end = part.indexOf(']', bracket);
-                    if (end < 0) return false;
-                    String idxStr = part.substring(bracket + 1, end);
-                    int idx = Integer.parseInt(idxStr);
-                    if (current == null || !current.isArray() || idx >= current.size()) return false;
-                    current = current.get(idx);
-                    bracket = part.indexOf('[', end + 1);
-                }
-            } else {
-                current = current.get(part);
-            }
-        }
-        return current != null && !current.isMissingNode();
+    private static boolean exists(JsonNode node) {
+        return node != null && !node.isMissingNode();
     }
 
-    private void validateRequiredOnly(ValidationReport report, String field, JsonNode expectedValueNode, JsonNode actualJson, ColumnRule rule) {
-        JsonNode expectedJson = expectedValueNode;
-        if (expectedValueNode != null && expectedValueNode.isTextual()) {
+    /** Parsed form of a textual expected value, cached by its text; the node itself if it is not JSON. */
+    private JsonNode parseExpected(JsonNode expectedValueNode) {
+        String text = expectedValueNode.asText();
+        JsonNode parsed = parsedExpected.get(text);
+        if (parsed == null) {
             try {
-                expectedJson = mapper.readTree(expectedValueNode.asText());
-            } catch (Exception ignored) {
-                expectedJson = expectedValueNode;
+                parsed = mapper.readTree(text);
+            } catch (Exception ex) {
+                parsed = NOT_JSON;
             }
+            if (parsedExpected.size() >= EXPECTED_CACHE_LIMIT) {
+                parsedExpected.clear();
+            }
+            parsedExpected.put(text, parsed);
         }
+        return parsed == NOT_JSON ? expectedValueNode : parsed;
+    }
 
-        List<String> required = new ArrayList<>();
-        if (rule.jsonRequiredPaths != null) required.addAll(rule.jsonRequiredPaths);
-        if (rule.jsonRequiredFields != null) required.addAll(rule.jsonRequiredFields);
-
-        for (String req : required) {
-            JsonNode expectedNode = getJsonPath(expectedJson, req);
-            JsonNode actualNode = getJsonPath(actualJson, req);
+    private void validateRequiredOnly(ValidationReport report, String field, CompiledSchema.CompiledRule rule, JsonNode[] expectedAt, JsonNode[] actualAt) {
+        int fields = rule.jsonRequiredFields.size();
+        int paths = rule.jsonRequiredPaths.size();
+        // Paths are reported before fields in this mode.
+        for (int n = 0; n < paths + fields; n++) {
+            int slot = n < paths ? fields + n : n - paths;
+            String req = n < paths ? rule.jsonRequiredPaths.get(n) : rule.jsonRequiredFields.get(n - paths);
+            JsonNode expectedNode = expectedAt[slot];
+            JsonNode actualNode = actualAt[slot];
             if (actualNode == null || actualNode.isMissingNode()) {
-                report.addFailure(field + "." + req, expectedNode == null ? "<required>" : expectedNode.toString(), null, "Required JSON path missing");
+                report.addFailure(field + "." + req, expectedNode == null ? "<required>" : expectedNode.toString(), null, Reason.REQUIRED_JSON_PATH_MISSING);
                 continue;
             }
             if (expectedNode != null && !expectedNode.isMissingNode()) {
@@ -375,7 +526,7 @@ public class JsonCompare {
                 if (valuesEqual(expVal, actVal)) {
                     report.addPass(field + "." + req, expVal, actVal);
                 } else {
-                    report.addFailure(field + "." + req, expVal, actVal, "JSON value mismatch");
+                    report.addFailure(field + "." + req, expVal, actVal, Reason.JSON_VALUE_MISMATCH);
                 }
             } else {
                 report.addPass(field + "." + req, "<required>", actualNode.asText());
@@ -383,39 +534,7 @@ public class JsonCompare {
         }
     }
 
-    private JsonNode getJsonPath(JsonNode root, String path) {
-        if (root == null || path == null || path.isEmpty()) return null;
-        String[] parts = path.split("\\.");
-        JsonNode current = root;
-        for (String part : parts) {
-            if (current == null) return null;
-            int bracket = part.indexOf('[');
-            if (bracket >= 0) {
-                String field = part.substring(0, bracket);
-                if (!field.isEmpty()) {
-                    current = current.get(field);
-                }
-                while (bracket >= 0) {
-                    int end = part.indexOf(']', bracket);
-                    if (end < 0) return null;
-                    String idxStr = part.substring(bracket + 1, end);
-                    int idx = Integer.parseInt(idxStr);
-                    if (current == null || !current.isArray() || idx >= current.size()) return null;
-                    current = current.get(idx);
-                    bracket = part.indexOf('[', end + 1);
-                }
-            } else {
-                current = current.get(part);
-            }
-        }
-        return current;
-    }
-
-    private String expectedJsonValueForPath(JsonNode expectedJson, String path) {
-        if (expectedJson == null || expectedJson.isMissingNode() || path == null || path.isEmpty()) {
-            return "<missing-in-expected>";
-        }
-        JsonNode node = getJsonPath(expectedJson, path);
+    private String expectedText(JsonNode node) {
         if (node == null || node.isMissingNode() || node.isNull()) {
             return "<missing-in-expected>";
         }
@@ -426,33 +545,273 @@ public class JsonCompare {
     }
 
     public Schema loadSchema(Path schemaPath) throws IOException {
-        String json = Files.readString(schemaPath, StandardCharsets.UTF_8);
-        return mapper.readValue(json, Schema.class);
+        // Schemas are mutated by callers (table policy), so only the read is mapped, not cached.
+        try (InputStream in = resources.openMapped(schemaPath)) {
+            return mapper.readValue(in, Schema.class);
+        }
     }
 
     public ColumnRule loadColumnRule(Path schemaPath) throws IOException {
-        String json = Files.readString(schemaPath, StandardCharsets.UTF_8);
-        return mapper.readValue(json, ColumnRule.class);
+        return resources.readValue(schemaPath, ColumnRule.class);
     }
 
     public JsonNode loadExpected(Path expectedPath) throws IOException {
-        String json = Files.readString(expectedPath, StandardCharsets.UTF_8);
-        return mapper.readTree(json);
+        return resources.readTree(expectedPath);
+    }
+
+    /** Read access to one actual DB row, whichever representation it was fetched in. */
+    private interface ActualRow {
+        int size();
+
+        boolean has(String column);
+
+        /** Normalized (trimmed string) value, or null. */
+        String text(String column);
+    }
+
+    private final class MapRow implements ActualRow {
+        private final Map<String, Object> row;
+
+        MapRow(Map<String, Object> row) {
+            this.row = row;
+        }
+
+        @Override
+        public int size() {
+            return row.size();
+        }
+
+        @Override
+        public boolean has(String column) {
+            return row.containsKey(column);
+        }
+
+        @Override
+        public String text(String column) {
+            return normalize(row.get(column));
+        }
+    }
+
+    private static final class RowSetRow implements ActualRow {
+        private final RowSet rows;
+        private final int row;
+
+        RowSetRow(RowSet rows, int row) {
+            this.rows = rows;
+            this.row = row;
+        }
+
+        @Override
+        public int size() {
+            return rows.columnCount();
+        }
+
+        @Override
+        public boolean has(String column) {
+            return rows.columnIndex(column) >= 0;
+        }
+
+        @Override
+        public String text(String column) {
+            int col = rows.columnIndex(column);
+            return col < 0 ? null : rows.text(row, col);
+        }
     }
 
     public static class Schema {
         public String tableName;
-        public List<String> requiredFields = new ArrayList<>();
-        public List<String> optionalFields = new ArrayList<>();
-        public Map<String, ColumnRule> rules = new HashMap<>();
+        public List<String> requiredFields = new TrackedList<>(this);
+        public List<String> optionalFields = new TrackedList<>(this);
+        public Map<String, ColumnRule> rules = new TrackedMap<>(this);
+        /** When set, rows are paired on these columns (see lookup.json) instead of by position. */
+        public List<String> keyColumns = new ArrayList<>();
+
+        private transient CompiledSchema compiled;
+        private transient long modCount;
+        private transient long compiledAt = -1;
 
         public boolean isRequired(String field) {
             return requiredFields.contains(field);
         }
 
+        /**
+         * Returns the hash-backed form of this schema, recompiling only when the fields or rules have
+         * changed since the last call. Call {@link #invalidateCompiled()} after mutating a rule in place.
+         */
+        public synchronized CompiledSchema compiled() {
+            track();
+            if (compiled == null || compiledAt != modCount) {
+                compiled = new CompiledSchema(this);
+                compiledAt = modCount;
+            }
+            return compiled;
+        }
+
+        public synchronized void invalidateCompiled() {
+            compiled = null;
+        }
+
         public boolean isOptional(String field) {
             return optionalFields.contains(field);
         }
+
+        /** Re-wraps collections that were assigned directly (e.g. by Jackson) so their changes are counted. */
+        private void track() {
+            if (!tracked(requiredFields)) {
+                requiredFields = new TrackedList<>(this, requiredFields);
+                modCount++;
+            }
+            if (!tracked(optionalFields)) {
+                optionalFields = new TrackedList<>(this, optionalFields);
+                modCount++;
+            }
+            if (!(rules instanceof TrackedMap && ((TrackedMap<?, ?>) rules).owner == this)) {
+                rules = new TrackedMap<>(this, rules);
+                modCount++;
+            }
+        }
+
+        private boolean tracked(List<String> fields) {
+            return fields instanceof TrackedList && ((TrackedList<?>) fields).owner == this;
+        }
+    }
+
+    /** List that counts its structural and element changes on the owning schema. */
+    private static final class TrackedList<E> extends AbstractList<E> implements RandomAccess {
+        final Schema owner;
+        private final ArrayList<E> values;
+
+        TrackedList(Schema owner) {
+            this.owner = owner;
+            this.values = new ArrayList<>();
+        }
+
+        TrackedList(Schema owner, Collection<? extends E> initial) {
+            this.owner = owner;
+            this.values = initial == null ? new ArrayList<>() : new ArrayList<>(initial);
+        }
+
+        @Override
+        public E get(int index) {
+            return values.get(index);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return values.contains(o);
+        }
+
+        @Override
+        public E set(int index, E element) {
+            owner.modCount++;
+            return values.set(index, element);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            owner.modCount++;
+            values.add(index, element);
+        }
+
+        @Override
+        public E remove(int index) {
+            owner.modCount++;
+            return values.remove(index);
+        }
+    }
+
+    /** Map that counts puts, removals and entry updates on the owning schema. */
+    private static final class TrackedMap<K, V> extends AbstractMap<K, V> {
+        final Schema owner;
+        private final HashMap<K, V> values;
+
+        TrackedMap(Schema owner) {
+            this.owner = owner;
+            this.values = new HashMap<>();
+        }
+
+        TrackedMap(Schema owner, Map<? extends K, ? extends V> initial) {
+            this.owner = owner;
+            this.values = initial == null ? new HashMap<>() : new HashMap<>(initial);
+        }
+
+        @Override
+        public V get(Object key) {
+            return values.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public V put(K key, V value) {
+            owner.modCount++;
+            return values.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            owner.modCount++;
+            return values.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            owner.modCount++;
+            values.clear();
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Entry<K, V>> it = values.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            Entry<K, V> e = it.next();
+                            return new SimpleEntry<>(e) {
+                                @Override
+                                public V setValue(V value) {
+                                    owner.modCount++;
+                                    super.setValue(value);
+                                    return e.setValue(value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            owner.modCount++;
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return values.size();
+                }
+            };
+        }
     }
 
     public static class ColumnRule {
@@ -465,6 +824,8 @@ public class JsonCompare {
         public List<String> jsonIgnorePaths = new ArrayList<>();
         public String jsonValidateMode = "";
         public String timePattern = null;
+        /** Set by SchemaRegistry on the rules it shares; not bound to a column. Not part of the JSON form. */
+        transient CompiledSchema.CompiledRule compiled;
     }
 
     public static class ValidationReport {
@@ -474,6 +835,17 @@ public class JsonCompare {
         public String status = "PASS";
         public List<String> globalErrors = new ArrayList<>();
         public List<ColumnResult> results = new ArrayList<>();
+        public int passCount;
+        public int failCount;
+        public int skippedCount;
+        /** Set when the failure budget ran out before every column was compared. */
+        public boolean truncated;
+        /**
+         * Set when the PASS was reused from a {@link ResultStore}: the counters are the stored ones and
+         * results holds a single {@link Reason#UNCHANGED} row for the whole pair instead of per-column rows.
+         */
+        public boolean unchanged;
+        FailureBudget budget = FailureBudget.UNLIMITED;
 
         public ValidationReport(String sourceSystem, String eventId, String tableName) {
             this.sourceSystem = sourceSystem;
@@ -481,21 +853,59 @@ public class JsonCompare {
             this.tableName = tableName;
         }
 
+        /** Row-level failure (count mismatch, unpaired row); counts against the failure budget like a column. */
         public void addGlobalError(String err) {
             globalErrors.add(err);
+            budget.recordFailure();
         }
 
         public void addPass(String column, String expected, String actual) {
-            results.add(new ColumnResult(column, expected, actual, "PASS", null));
+            passCount++;
+            results.add(new ColumnResult(column, expected, actual, Status.PASS, Reason.NONE, null));
         }
 
-        public void addFailure(String column, String expected, String actual, String reason) {
+        public void addFailure(String column, String expected, String actual, Reason reason) {
+            addFailure(column, expected, actual, reason, null);
+        }
+
+        public void addFailure(String column, String expected, String actual, Reason reason, String detail) {
             status = "FAIL";
-            results.add(new ColumnResult(column, expected, actual, "FAIL", reason));
+            failCount++;
+            budget.recordFailure();
+            results.add(new ColumnResult(column, expected, actual, Status.FAIL, reason, detail));
+        }
+
+        public void addFailure(String column, String expected, String actual, String reason) {
+            Reason code = Reason.of(reason);
+            addFailure(column, expected, actual, code, code == Reason.OTHER ? reason : null);
+        }
+
+        public void addSkipped(String column, String expected, String actual, Reason reason) {
+            skippedCount++;
+            results.add(new ColumnResult(column, expected, actual, Status.SKIPPED, reason, null));
         }
 
         public void addSkipped(String column, String expected, String actual, String reason) {
-            results.add(new ColumnResult(column, expected, actual, "SKIPPED", reason));
+            Reason code = Reason.of(reason);
+            skippedCount++;
+            results.add(new ColumnResult(column, expected, actual, Status.SKIPPED, code, code == Reason.OTHER ? reason : null));
+        }
+
+        boolean stopEarly() {
+            if (budget.exhausted()) {
+                truncated = true;
+                return true;
+            }
+            return false;
+        }
+
+        public int totalCount() {
+            return passCount + failCount + skippedCount;
+        }
+
+        /** Drops PASS entries once they have been written to a sink; the counters are kept. */
+        public void retainFailures() {
+            results.removeIf(r -> r.status == Status.PASS);
         }
 
         public void setStatus(String status) {
@@ -503,29 +913,89 @@ public class JsonCompare {
         }
 
         public void finalizeStatus() {
-            if (!globalErrors.isEmpty()) status = "FAIL";
-            for (ColumnResult r : results) {
-                if ("FAIL".equals(r.status)) {
-                    status = "FAIL";
-                    return;
-                }
+            if (!globalErrors.isEmpty() || failCount > 0) status = "FAIL";
+        }
+    }
+
+    public enum Status { PASS, FAIL, SKIPPED }
+
+    /** Fixed failure/skip reasons; OTHER and JSON_WITHOUT_SCHEMA carry their text per result. */
+    public enum Reason {
+        NONE(null),
+        OPTIONAL_MISSING("Optional field missing in actual; skipped"),
+        REQUIRED_MISSING("Required field missing in actual"),
+        TIME_FORMAT_INVALID("Time format invalid"),
+        INVALID_DATETIME("Invalid datetime"),
+        NOT_IN_ALLOWED_SET("Value not in allowed set"),
+        NULL_NOT_ALLOWED("Null/empty/N not allowed by schema"),
+        MISMATCH("Mismatch"),
+        JSON_FIELD_MISSING("JSON field missing"),
+        JSON_FIELD_MISSING_SKIPPED("JSON field missing; skipped"),
+        INVALID_JSON("Invalid JSON in actual"),
+        REQUIRED_JSON_FIELD_MISSING("Required JSON field missing"),
+        REQUIRED_JSON_PATH_MISSING("Required JSON path missing"),
+        JSON_VALUE_MISMATCH("JSON value mismatch"),
+        IGNORED_JSON_PATH("Ignored JSON path"),
+        MISSING_JSON_FIELD("Missing JSON field"),
+        NOT_REQUIRED_MISSING("Not required; missing in actual"),
+        ARRAY_SIZE_MISMATCH("Array size mismatch"),
+        NOT_REQUIRED_ARRAY_SIZE_MISMATCH("Not required; array size mismatch"),
+        NOT_REQUIRED_MISMATCH("Not required; mismatch skipped"),
+        JSON_WITHOUT_SCHEMA("JSON detected but no column schema found"),
+        UNCHANGED("Unchanged since last green run"),
+        OTHER(null);
+
+        private static final Map<String, Reason> BY_TEXT = new HashMap<>();
+
+        static {
+            for (Reason r : values()) {
+                if (r.text != null) BY_TEXT.put(r.text, r);
             }
         }
+
+        public final String text;
+
+        Reason(String text) {
+            this.text = text;
+        }
+
+        public static Reason of(String text) {
+            if (text == null) return NONE;
+            return BY_TEXT.getOrDefault(text, OTHER);
+        }
     }
 
+    /**
+     * One compared cell. The column path is an id into {@link PathTable}; status and reason are enums,
+     * with free text kept only for reasons that need it. Equal expected/actual share one String.
+     */
     public static class ColumnResult {
-        public String column;
-        public String expected;
-        public String actual;
-        public String status;
-        public String reason;
-
-        public ColumnResult(String column, String expected, String actual, String status, String reason) {
-            this.column = column;
+        public final int pathId;
+        public final String expected;
+        public final String actual;
+        public final Status status;
+        public final Reason reasonCode;
+        private final String reasonDetail;
+
+        public ColumnResult(String column, String expected, String actual, Status status, Reason reasonCode, String reasonDetail) {
+            this.pathId = PathTable.shared().id(column);
             this.expected = expected;
-            this.actual = actual;
+            this.actual = actual != null && actual.equals(expected) ? expected : actual;
             this.status = status;
-            this.reason = reason;
+            this.reasonCode = reasonCode;
+            this.reasonDetail = reasonDetail;
+        }
+
+        public ColumnResult(String column, String expected, String actual, String status, String reason) {
+            this(column, expected, actual, Status.valueOf(status), Reason.of(reason), Reason.of(reason) == Reason.OTHER ? reason : null);
+        }
+
+        public String column() {
+            return PathTable.shared().path(pathId);
+        }
+
+        public String reason() {
+            return reasonDetail != null ? reasonDetail : reasonCode.text;
         }
     }
 }
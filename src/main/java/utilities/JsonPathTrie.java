@@ -0,0 +1,109 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dotted JSON paths ("a.b", "items[2].id", "[0].x") compiled into a trie of field and index steps.
+ * {@link #resolve} walks the expected and actual trees together, once, and fills in the node each path
+ * leads to on both sides, so paths sharing a prefix share the walk and nothing is split per row.
+ *
+ * Resolution follows the original split-and-walk rules: a field step on a non-object and an index step
+ * on a non-array or past the end yield null.
+ */
+public final class JsonPathTrie {
+    private final Node root = new Node();
+    private final int size;
+
+    public JsonPathTrie(List<String> paths) {
+        this.size = paths.size();
+        for (int i = 0; i < paths.size(); i++) {
+            List<Object> steps = parse(paths.get(i));
+            if (steps == null) {
+                continue;
+            }
+            Node node = root;
+            for (Object step : steps) {
+                node = node.children.computeIfAbsent(step, k -> new Node());
+            }
+            node.slots.add(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** out[i] receives the node path i leads to in each tree, or null. */
+    public void resolve(JsonNode expected, JsonNode actual, JsonNode[] expectedOut, JsonNode[] actualOut) {
+        for (int slot : root.slots) {
+            expectedOut[slot] = expected;
+            actualOut[slot] = actual;
+        }
+        for (Map.Entry<Object, Node> e : root.children.entrySet()) {
+            walk(e.getKey(), e.getValue(), expected, actual, expectedOut, actualOut);
+        }
+    }
+
+    private void walk(Object step, Node node, JsonNode expectedParent, JsonNode actualParent, JsonNode[] expectedOut, JsonNode[] actualOut) {
+        JsonNode expected = step(expectedParent, step);
+        JsonNode actual = step(actualParent, step);
+        for (int slot : node.slots) {
+            expectedOut[slot] = expected;
+            actualOut[slot] = actual;
+        }
+        if (expected == null && actual == null) {
+            return;
+        }
+        for (Map.Entry<Object, Node> e : node.children.entrySet()) {
+            walk(e.getKey(), e.getValue(), expected, actual, expectedOut, actualOut);
+        }
+    }
+
+    private static JsonNode step(JsonNode current, Object step) {
+        if (current == null) return null;
+        if (step instanceof Integer) {
+            int idx = (Integer) step;
+            if (!current.isArray() || idx >= current.size()) return null;
+            return current.get(idx);
+        }
+        return current.get((String) step);
+    }
+
+    /** Steps of one path, or null when it can never resolve (empty or malformed index). */
+    private static List<Object> parse(String path) {
+        if (path == null || path.isEmpty()) return null;
+        List<Object> steps = new ArrayList<>();
+        for (String part : path.split("\\.")) {
+            int bracket = part.indexOf('[');
+            if (bracket < 0) {
+                steps.add(part);
+                continue;
+            }
+            String field = part.substring(0, bracket);
+            if (!field.isEmpty()) {
+                steps.add(field);
+            }
+            while (bracket >= 0) {
+                int end = part.indexOf(']', bracket);
+                if (end < 0) return null;
+                try {
+                    steps.add(Integer.parseInt(part.substring(bracket + 1, end)));
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+                bracket = part.indexOf('[', end + 1);
+            }
+        }
+        return steps;
+    }
+
+    private static final class Node {
+        final Map<Object, Node> children = new LinkedHashMap<>();
+        final List<Integer> slots = new ArrayList<>(1);
+    }
+}
@@ -0,0 +1,67 @@
+package utilities;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Buffered JSON Lines writer: one object per column result and per global error, streamed through a
+ * single JsonGenerator.
+ */
+public class JsonlResultSink implements ResultSink {
+    private final Path file;
+    private final JsonGenerator gen;
+
+    public JsonlResultSink(Path file) throws IOException {
+        this.file = file;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        OutputStream os = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        this.gen = new ObjectMapper().getFactory().createGenerator(os);
+        gen.setRootValueSeparator(null);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public synchronized void write(JsonCompare.ValidationReport report) throws IOException {
+        for (String err : report.globalErrors) {
+            writeLine(report, "<global>", null, null, "FAIL", err);
+        }
+        for (JsonCompare.ColumnResult r : report.results) {
+            writeLine(report, r.column(), r.expected, r.actual, r.status.name(), r.reason());
+        }
+    }
+
+    private void writeLine(JsonCompare.ValidationReport report, String column, String expected, String actual, String status, String reason) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("table", report.tableName);
+        gen.writeStringField("eventId", report.eventId);
+        gen.writeStringField("column", column);
+        gen.writeStringField("expected", expected);
+        gen.writeStringField("actual", actual);
+        gen.writeStringField("status", status);
+        gen.writeStringField("reason", reason);
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        gen.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        gen.close();
+    }
+}
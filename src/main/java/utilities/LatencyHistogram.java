@@ -0,0 +1,117 @@
+package utilities;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram in the style of HdrHistogram: values are bucketed by power of two,
+ * each power split into linear sub-buckets, so the relative error stays below 2^-(precisionBits-1)
+ * (under 2% by default) across the whole range. Recording is a few atomic ops; safe for concurrent use.
+ */
+public class LatencyHistogram {
+    private static final int DEFAULT_PRECISION_BITS = 7;
+
+    private final int precisionBits;
+    private final int subBuckets;
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    public LatencyHistogram(int precisionBits) {
+        this.precisionBits = precisionBits;
+        this.subBuckets = 1 << precisionBits;
+        this.counts = new AtomicLongArray((64 - precisionBits + 1) * subBuckets);
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+        min.accumulateAndGet(v, Math::min);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return total.get() == 0 ? 0 : max.get();
+    }
+
+    public long min() {
+        return total.get() == 0 ? 0 : min.get();
+    }
+
+    public double mean() {
+        long n = total.get();
+        return n == 0 ? 0.0 : sum.get() / (double) n;
+    }
+
+    /** Value at the given percentile (0-100), reported as the upper bound of its bucket. */
+    public long percentile(double percentile) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void add(LatencyHistogram other) {
+        if (other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Histogram precision mismatch");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        total.addAndGet(other.total.get());
+        sum.addAndGet(other.sum.get());
+        if (other.total.get() > 0) {
+            max.accumulateAndGet(other.max.get(), Math::max);
+            min.accumulateAndGet(other.min.get(), Math::min);
+        }
+    }
+
+    /** One-line summary with values divided by unitDivisor (e.g. 1_000_000 for nanos to millis). */
+    public String summary(double unitDivisor, String unit) {
+        return String.format(Locale.ROOT, "count=%d min=%.3f%s p50=%.3f%s p90=%.3f%s p99=%.3f%s p99.9=%.3f%s max=%.3f%s mean=%.3f%s",
+                count(),
+                min() / unitDivisor, unit,
+                percentile(50) / unitDivisor, unit,
+                percentile(90) / unitDivisor, unit,
+                percentile(99) / unitDivisor, unit,
+                percentile(99.9) / unitDivisor, unit,
+                max() / unitDivisor, unit,
+                mean() / unitDivisor, unit);
+    }
+
+    private int indexOf(long v) {
+        if (v < subBuckets) {
+            return (int) v;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(v) - precisionBits + 1;
+        int sub = (int) (v >>> magnitude) & (subBuckets - 1);
+        return magnitude * subBuckets + sub;
+    }
+
+    private long upperBoundOf(int index) {
+        int magnitude = index / subBuckets;
+        long sub = index % subBuckets;
+        return ((sub + 1) << magnitude) - 1;
+    }
+}
@@ -0,0 +1,152 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop event load generator on top of {@link EventPublisher}.
+ *
+ * Send times are fixed up front by the rate schedule (constant, or linear ramp from startRate to
+ * endRate over rampDuration) and do not wait for responses. Latency is measured from each event's
+ * intended send time, so time spent queued behind a slow server or a full in-flight window shows up
+ * in the numbers instead of being silently omitted. Service time (actual send to response) is kept
+ * in a separate histogram.
+ *
+ * Every event is a copy of a template event from the payload file with "id" and "data.orderId"
+ * rewritten from idTemplate / orderIdTemplate, where {id}, {orderId} and {n} are substituted.
+ */
+public class LoadGenerator {
+    private final EventPublisher publisher;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public LoadGenerator(EventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    public LoadReport run(URI endpoint, Path payloadPath, Config config) throws IOException {
+        List<JsonNode> templates = new ArrayList<>();
+        new PayloadReader(mapper).readEvents(payloadPath, templates::add);
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("No events found in " + payloadPath);
+        }
+
+        LoadReport report = new LoadReport();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        long durationNanos = config.duration.toNanos();
+        long rampNanos = Math.max(0, config.rampDuration.toNanos());
+        long start = System.nanoTime();
+        long elapsed = 0;
+        long n = 0;
+
+        while (elapsed < durationNanos) {
+            long intended = start + elapsed;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            byte[] body = render(templates.get((int) (n % templates.size())), n, config);
+            report.sent.incrementAndGet();
+            long sendAt = System.nanoTime();
+            pending.add(publisher.publish(endpoint, body, "application/json").handle((r, ex) -> {
+                long done = System.nanoTime();
+                report.responseTime.record(done - intended);
+                report.serviceTime.record(done - sendAt);
+                if (ex == null && r.isSuccess()) {
+                    report.succeeded.incrementAndGet();
+                } else {
+                    report.failed.incrementAndGet();
+                }
+                return null;
+            }));
+            pending.removeIf(CompletableFuture::isDone);
+
+            n++;
+            double rate = rateAt(elapsed, rampNanos, config);
+            elapsed += (long) (1_000_000_000L / Math.max(rate, 0.001));
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private double rateAt(long elapsedNanos, long rampNanos, Config config) {
+        if (rampNanos == 0 || elapsedNanos >= rampNanos) {
+            return config.endRate;
+        }
+        double f = elapsedNanos / (double) rampNanos;
+        return config.startRate + (config.endRate - config.startRate) * f;
+    }
+
+    private byte[] render(JsonNode template, long n, Config config) throws IOException {
+        ObjectNode event = ((ObjectNode) template).deepCopy();
+        String id = template.path("id").asText("");
+        String orderId = template.path("data").path("orderId").asText("");
+        event.put("id", substitute(config.idTemplate, id, orderId, n));
+        if (event.path("data").isObject()) {
+            ((ObjectNode) event.get("data")).put("orderId", substitute(config.orderIdTemplate, id, orderId, n));
+        }
+        return mapper.writeValueAsBytes(event);
+    }
+
+    private String substitute(String template, String id, String orderId, long n) {
+        return template.replace("{id}", id).replace("{orderId}", orderId).replace("{n}", Long.toString(n));
+    }
+
+    public static class Config {
+        public double startRate = 10;
+        public double endRate = 10;
+        public Duration rampDuration = Duration.ZERO;
+        public Duration duration = Duration.ofSeconds(10);
+        public String idTemplate = "{id}-{n}";
+        public String orderIdTemplate = "{orderId}-{n}";
+
+        public static Config constant(double eventsPerSecond, Duration duration) {
+            Config c = new Config();
+            c.startRate = eventsPerSecond;
+            c.endRate = eventsPerSecond;
+            c.duration = duration;
+            return c;
+        }
+
+        public static Config ramp(double fromRate, double toRate, Duration rampDuration, Duration duration) {
+            Config c = constant(toRate, duration);
+            c.startRate = fromRate;
+            c.rampDuration = rampDuration;
+            return c;
+        }
+    }
+
+    public static class LoadReport {
+        public final AtomicLong sent = new AtomicLong();
+        public final AtomicLong succeeded = new AtomicLong();
+        public final AtomicLong failed = new AtomicLong();
+        public final LatencyHistogram responseTime = new LatencyHistogram();
+        public final LatencyHistogram serviceTime = new LatencyHistogram();
+        public long elapsedNanos;
+
+        public double achievedRate() {
+            return elapsedNanos == 0 ? 0.0 : sent.get() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return "sent=" + sent + " ok=" + succeeded + " failed=" + failed
+                    + String.format(java.util.Locale.ROOT, " rate=%.1f/s", achievedRate())
+                    + "\n  responseTime(ms): " + responseTime.summary(1_000_000.0, "")
+                    + "\n  serviceTime(ms) : " + serviceTime.summary(1_000_000.0, "");
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Level-gated console logger. Lines below {@code log.level} (DEBUG, INFO, WARN, ERROR, OFF; default
+ * INFO) are dropped before any formatting, except on the {@link #console()} logger; the rest go through one bounded queue drained by a daemon
+ * writer thread, so callers never block on the console unless the queue is full. Every logger shares the
+ * queue, so output keeps its global order. Set {@code log.async=false} to write inline.
+ *
+ * Call {@link #flush()} before printing through other channels or when a run ends.
+ */
+public final class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final Level THRESHOLD = parseLevel(System.getProperty("log.level", "INFO"));
+    private static final boolean ASYNC = Boolean.parseBoolean(System.getProperty("log.async", "true"));
+    private static final BlockingQueue<String> QUEUE = new ArrayBlockingQueue<>(Math.max(16, Integer.getInteger("log.queueSize", 8192)));
+    private static final AtomicLong ENQUEUED = new AtomicLong();
+    private static final Object WRITTEN_LOCK = new Object();
+    private static long written;
+
+    static {
+        if (ASYNC) {
+            Thread writer = new Thread(Log::drain, "log-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+        }
+    }
+
+    private final String prefix;
+    private final boolean gated;
+
+    private Log(String prefix, boolean gated) {
+        this.prefix = prefix;
+        this.gated = gated;
+    }
+
+    /** Logger whose lines are prefixed with "[tag] ". */
+    public static Log get(String tag) {
+        return new Log("[" + tag + "] ", true);
+    }
+
+    /** Logger that writes lines as given at any log.level, for report tables, banners and the run summary. */
+    public static Log console() {
+        return new Log("", false);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= THRESHOLD.ordinal() && level != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void debug(String msg) {
+        log(Level.DEBUG, msg);
+    }
+
+    public void info(String msg) {
+        log(Level.INFO, msg);
+    }
+
+    public void warn(String msg) {
+        log(Level.WARN, msg);
+    }
+
+    public void error(String msg) {
+        log(Level.ERROR, msg);
+    }
+
+    public void log(Level level, String msg) {
+        if (gated && !isEnabled(level)) return;
+        String line = prefix.isEmpty() ? msg : prefix + msg;
+        if (!ASYNC) {
+            System.out.println(line);
+            return;
+        }
+        ENQUEUED.incrementAndGet();
+        try {
+            QUEUE.put(line);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            System.out.println(line);
+            markWritten(1);
+        }
+    }
+
+    /** Blocks until every line logged before this call has been written. */
+    public static void flush() {
+        if (!ASYNC) return;
+        long target = ENQUEUED.get();
+        synchronized (WRITTEN_LOCK) {
+            while (written < target) {
+                try {
+                    WRITTEN_LOCK.wait(100);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        System.out.flush();
+    }
+
+    private static void drain() {
+        List<String> batch = new ArrayList<>(256);
+        StringBuilder out = new StringBuilder(8192);
+        String nl = System.lineSeparator();
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            QUEUE.drainTo(batch, 255);
+            for (String line : batch) {
+                out.append(line).append(nl);
+            }
+            System.out.print(out);
+            System.out.flush();
+            out.setLength(0);
+            markWritten(batch.size());
+            batch.clear();
+        }
+    }
+
+    private static void markWritten(int lines) {
+        synchronized (WRITTEN_LOCK) {
+            written += lines;
+            WRITTEN_LOCK.notifyAll();
+        }
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return Level.INFO;
+        }
+    }
+}
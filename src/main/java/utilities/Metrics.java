@@ -0,0 +1,178 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide run metrics: LongAdder counters and {@link LatencyHistogram}s keyed by name and label
+ * pairs. Recording is lock-free; series are created on first use. Histograms named "*_seconds" record
+ * nanoseconds and are scaled to seconds in the Prometheus export.
+ *
+ * Disable recording with {@code -Dmetrics.enabled=false}.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+    private static final int HISTOGRAM_PRECISION_BITS = 5;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Metrics SHARED = new Metrics();
+
+    private final ConcurrentHashMap<String, Series<LongAdder>> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Series<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    /** Start timestamp for {@link #recordSince}; 0 when metrics are disabled. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public static void recordSince(LatencyHistogram histogram, long startNanos) {
+        if (ENABLED) histogram.record(System.nanoTime() - startNanos);
+    }
+
+    /** @param labels alternating label names and values */
+    public LongAdder counter(String name, String... labels) {
+        return counters.computeIfAbsent(seriesKey(name, labels), k -> new Series<>(name, labels, new LongAdder())).metric;
+    }
+
+    /** @param labels alternating label names and values */
+    public LatencyHistogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(seriesKey(name, labels),
+                k -> new Series<>(name, labels, new LatencyHistogram(HISTOGRAM_PRECISION_BITS))).metric;
+    }
+
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    /** Writes run-metrics.json and run-metrics.prom into the directory. */
+    public void export(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        writeJson(dir.resolve("run-metrics.json"));
+        writePrometheus(dir.resolve("run-metrics.prom"));
+    }
+
+    public void writeJson(Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode counterArr = root.putArray("counters");
+        for (Series<LongAdder> s : sorted(counters)) {
+            ObjectNode n = counterArr.addObject();
+            n.put("name", s.name);
+            n.set("labels", s.labelsNode(mapper));
+            n.put("value", s.metric.sum());
+        }
+        ArrayNode histArr = root.putArray("histograms");
+        for (Series<LatencyHistogram> s : sorted(histograms)) {
+            LatencyHistogram h = s.metric;
+            ObjectNode n = histArr.addObject();
+            n.put("name", s.name);
+            n.set("labels", s.labelsNode(mapper));
+            n.put("unit", s.name.endsWith("_seconds") ? "nanoseconds" : "");
+            n.put("count", h.count());
+            n.put("min", h.min());
+            n.put("max", h.max());
+            n.put("mean", h.mean());
+            n.put("p50", h.percentile(50));
+            n.put("p90", h.percentile(90));
+            n.put("p99", h.percentile(99));
+            n.put("p999", h.percentile(99.9));
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    public void writePrometheus(Path file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            String lastName = null;
+            for (Series<LongAdder> s : sorted(counters)) {
+                if (!s.name.equals(lastName)) {
+                    w.write("# TYPE " + s.name + " counter\n");
+                    lastName = s.name;
+                }
+                w.write(s.name + s.labelText(null) + " " + s.metric.sum() + "\n");
+            }
+            lastName = null;
+            for (Series<LatencyHistogram> s : sorted(histograms)) {
+                LatencyHistogram h = s.metric;
+                double scale = s.name.endsWith("_seconds") ? 1e-9 : 1.0;
+                if (!s.name.equals(lastName)) {
+                    w.write("# TYPE " + s.name + " summary\n");
+                    lastName = s.name;
+                }
+                for (double q : QUANTILES) {
+                    w.write(s.name + s.labelText("quantile=\"" + q + "\"") + " " + h.percentile(q * 100) * scale + "\n");
+                }
+                w.write(s.name + "_sum" + s.labelText(null) + " " + h.mean() * h.count() * scale + "\n");
+                w.write(s.name + "_count" + s.labelText(null) + " " + h.count() + "\n");
+            }
+        }
+    }
+
+    private static <M> List<Series<M>> sorted(Map<String, Series<M>> series) {
+        return new ArrayList<>(new TreeMap<>(series).values());
+    }
+
+    private static String seriesKey(String name, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs for metric " + name);
+        }
+        if (labels.length == 0) return name;
+        StringBuilder sb = new StringBuilder(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append('=').append(labels[i + 1]);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static final class Series<M> {
+        final String name;
+        final String[] labels;
+        final M metric;
+
+        Series(String name, String[] labels, M metric) {
+            this.name = name;
+            this.labels = labels.clone();
+            this.metric = metric;
+        }
+
+        ObjectNode labelsNode(ObjectMapper mapper) {
+            ObjectNode n = mapper.createObjectNode();
+            for (int i = 0; i < labels.length; i += 2) {
+                n.put(labels[i], labels[i + 1]);
+            }
+            return n;
+        }
+
+        String labelText(String extra) {
+            if (labels.length == 0 && extra == null) return "";
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) sb.append(',');
+                sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            if (extra != null) {
+                if (labels.length > 0) sb.append(',');
+                sb.append(extra);
+            }
+            return sb.append('}').toString();
+        }
+
+        private static String escape(String v) {
+            return v == null ? "" : v.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
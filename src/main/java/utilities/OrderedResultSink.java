@@ -0,0 +1,108 @@
+package utilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fans reports out to several sinks in submission order even when they finish out of order on
+ * worker threads. Reports that arrive early are held until their predecessors are written; once a
+ * report is written it is trimmed to failures when {@code summaryOnly} is set.
+ *
+ * Every sequence number must be written or skipped. Reports still held at close, behind a sequence number
+ * that never arrived, are written in order then, and the missing numbers are logged.
+ */
+public class OrderedResultSink implements ResultSink {
+    private static final Log LOG = Log.get("Results");
+    private static final int MAX_LOGGED_GAPS = 20;
+
+    private final List<ResultSink> sinks;
+    private final boolean summaryOnly;
+    private final Map<Integer, JsonCompare.ValidationReport> early = new HashMap<>();
+    private int next;
+    private int submitted;
+
+    public OrderedResultSink(List<ResultSink> sinks, boolean summaryOnly) {
+        this.sinks = sinks;
+        this.summaryOnly = summaryOnly;
+    }
+
+    /** Writes the report with this 0-based sequence number and any held reports that follow it. */
+    public synchronized void write(int sequence, JsonCompare.ValidationReport report) throws IOException {
+        early.put(sequence, report);
+        submitted = Math.max(submitted, sequence + 1);
+        while (early.containsKey(next)) {
+            JsonCompare.ValidationReport r = early.remove(next);
+            next++;
+            if (r != null) {
+                emit(r);
+            }
+        }
+    }
+
+    private void emit(JsonCompare.ValidationReport report) throws IOException {
+        for (ResultSink sink : sinks) {
+            sink.write(report);
+        }
+        if (summaryOnly) {
+            report.retainFailures();
+        }
+    }
+
+    /** Marks a sequence number that will never produce a report (e.g. a compare that was cancelled). */
+    public synchronized void skip(int sequence) throws IOException {
+        write(sequence, null);
+    }
+
+    /** Appends after every sequence number submitted so far. */
+    @Override
+    public synchronized void write(JsonCompare.ValidationReport report) throws IOException {
+        write(submitted, report);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        for (ResultSink sink : sinks) {
+            sink.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException first = null;
+        if (!early.isEmpty()) {
+            List<Integer> gaps = new ArrayList<>();
+            int gapCount = 0;
+            for (int s = next; s < submitted; s++) {
+                if (!early.containsKey(s)) {
+                    if (gaps.size() < MAX_LOGGED_GAPS) gaps.add(s);
+                    gapCount++;
+                }
+            }
+            Map<Integer, JsonCompare.ValidationReport> held = new TreeMap<>(early);
+            early.clear();
+            next = submitted;
+            LOG.warn("closing with " + held.values().stream().filter(r -> r != null).count() + " held reports; "
+                    + gapCount + " sequence numbers never reported" + (gaps.isEmpty() ? "" : ", first: " + gaps));
+            for (JsonCompare.ValidationReport r : held.values()) {
+                if (r == null) continue;
+                try {
+                    emit(r);
+                } catch (IOException ex) {
+                    if (first == null) first = ex;
+                }
+            }
+        }
+        for (ResultSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException ex) {
+                if (first == null) first = ex;
+            }
+        }
+        if (first != null) throw first;
+    }
+}
@@ -0,0 +1,50 @@
+package utilities;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of column paths ("status", "poiresponse.timeline[3].status", ...). Results
+ * store the int id, so a path repeated across thousands of rows is held once. Lookups by id read a
+ * volatile array and take no lock; only new paths synchronize.
+ */
+public final class PathTable {
+    private static final PathTable SHARED = new PathTable();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] paths = new String[256];
+    private int size;
+
+    public static PathTable shared() {
+        return SHARED;
+    }
+
+    public int id(String path) {
+        Integer id = ids.get(path);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(path);
+            if (id != null) {
+                return id;
+            }
+            String[] current = paths;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = path;
+            paths = current;
+            ids.put(path, size);
+            return size++;
+        }
+    }
+
+    public String path(int id) {
+        return paths[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,112 @@
+package utilities;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams event ids and order ids out of a payload file without building a tree for the whole file.
+ * The root must be an array; nested arrays are walked and each object element is read on its own,
+ * so memory is bounded by one event plus the records the caller keeps.
+ */
+public class PayloadReader {
+    private final ObjectMapper mapper;
+
+    public PayloadReader() {
+        this(new ObjectMapper());
+    }
+
+    public PayloadReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /** Every record of the file; a few strings each, so far smaller than the events they come from. */
+    public List<PayloadRecord> readAll(Path payloadPath) throws IOException {
+        List<PayloadRecord> records = new ArrayList<>();
+        read(payloadPath, records::add);
+        return records;
+    }
+
+    public void read(Path payloadPath, Consumer<PayloadRecord> consumer) throws IOException {
+        readEvents(payloadPath, event -> {
+            PayloadRecord record = recordOf(event);
+            if (record != null) {
+                consumer.accept(record);
+            }
+        });
+    }
+
+    /** Emits every event object found in the (possibly nested) payload arrays, one at a time. */
+    public void readEvents(Path payloadPath, Consumer<JsonNode> consumer) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(payloadPath.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Payload file must be a JSON array");
+            }
+            readArray(parser, consumer);
+        }
+    }
+
+    private void readArray(JsonParser parser, Consumer<JsonNode> consumer) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of payload input");
+            }
+            if (token == JsonToken.START_ARRAY) {
+                readArray(parser, consumer);
+            } else if (token == JsonToken.START_OBJECT) {
+                consumer.accept(mapper.readTree(parser));
+            }
+        }
+    }
+
+    /** Event id / order id of one event, or null when it carries neither. */
+    public PayloadRecord recordOf(JsonNode node) {
+        String eventId = firstText(node, "event-id", "id", "event_id");
+        String orderId = firstText(node, "order-id", "orderid", "order_id");
+        if (orderId.isEmpty()) {
+            orderId = nestedText(node, "data", "orderId");
+        }
+        if (eventId.isEmpty() && orderId.isEmpty()) {
+            return null;
+        }
+        return new PayloadRecord(eventId, orderId);
+    }
+
+    private String firstText(JsonNode node, String... names) {
+        for (String name : names) {
+            if (node.has(name) && !node.get(name).isNull()) {
+                String v = node.get(name).asText().trim();
+                if (!v.isEmpty()) return v;
+            }
+        }
+        return "";
+    }
+
+    private String nestedText(JsonNode node, String parent, String child) {
+        if (node.has(parent) && node.get(parent).isObject()) {
+            JsonNode p = node.get(parent);
+            if (p.has(child) && !p.get(child).isNull()) {
+                return p.get(child).asText().trim();
+            }
+        }
+        return "";
+    }
+
+    public static class PayloadRecord {
+        public final String eventId;
+        public final String orderId;
+
+        public PayloadRecord(String eventId, String orderId) {
+            this.eventId = eventId == null ? "" : eventId;
+            this.orderId = orderId == null ? "" : orderId;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads expected/schema JSON straight from memory-mapped files into Jackson, and caches parsed
+ * results per path and type until the file's size or modification time changes.
+ *
+ * The cache keeps the resources.cacheSize (default 256) most recently used entries, held through soft
+ * references so the GC can reclaim them under memory pressure. Returned values are shared between all
+ * callers and must be treated as read-only: copy (e.g. JsonNode.deepCopy()) before mutating.
+ */
+public class ResourceLoader {
+    private static final ResourceLoader SHARED = new ResourceLoader(new ObjectMapper(), Integer.getInteger("resources.cacheSize", 256));
+
+    private final ObjectMapper mapper;
+    private final Map<CacheKey, CacheEntry> cache;
+
+    public ResourceLoader(ObjectMapper mapper) {
+        this(mapper, 256);
+    }
+
+    public ResourceLoader(ObjectMapper mapper, int maxEntries) {
+        this.mapper = mapper;
+        int limit = Math.max(0, maxEntries);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    public static ResourceLoader shared() {
+        return SHARED;
+    }
+
+    /** Parsed tree of the file; shared and read-only, see the class comment. */
+    public JsonNode readTree(Path path) throws IOException {
+        return readValue(path, JsonNode.class);
+    }
+
+    public <T> T readValue(Path path, Class<T> type) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        long mtime = Files.getLastModifiedTime(key).toMillis();
+        long size = Files.size(key);
+        CacheKey cacheKey = new CacheKey(key, type);
+
+        Object cached = lookup(cacheKey, mtime, size);
+        if (cached != null) {
+            return type.cast(cached);
+        }
+        T value;
+        try (InputStream in = openMapped(key)) {
+            value = mapper.readValue(in, type);
+        }
+        store(cacheKey, mtime, size, value);
+        return value;
+    }
+
+    private Object lookup(CacheKey key, long mtime, long size) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry == null || entry.mtime != mtime || entry.size != size) {
+                return null;
+            }
+            Object value = entry.value.get();
+            if (value == null) {
+                cache.remove(key);
+            }
+            return value;
+        }
+    }
+
+    private void store(CacheKey key, long mtime, long size, Object value) {
+        synchronized (cache) {
+            cache.put(key, new CacheEntry(mtime, size, value));
+        }
+    }
+
+    /** Raw file content, cached like parsed values; shared, so the array must not be written to. */
+    public byte[] readBytes(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        long mtime = Files.getLastModifiedTime(key).toMillis();
+        long size = Files.size(key);
+        CacheKey cacheKey = new CacheKey(key, byte[].class);
+
+        Object cached = lookup(cacheKey, mtime, size);
+        if (cached != null) {
+            return (byte[]) cached;
+        }
+        byte[] bytes = Files.readAllBytes(key);
+        store(cacheKey, mtime, size, bytes);
+        return bytes;
+    }
+
+    /**
+     * Opens the file as a stream over a read-only mapping, for callers that parse incrementally.
+     * Files beyond the 2 GB mapping limit fall back to a regular stream.
+     */
+    public InputStream openMapped(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return Files.newInputStream(path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new ByteBufferBackedInputStream(buffer);
+        } catch (UnsupportedOperationException ex) {
+            return Files.newInputStream(path);
+        }
+    }
+
+    public void invalidate(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (cache) {
+            cache.keySet().removeIf(k -> k.path.equals(key));
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static final class CacheKey {
+        final Path path;
+        final Class<?> type;
+
+        CacheKey(Path path, Class<?> type) {
+            this.path = path;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return path.equals(other.path) && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, type);
+        }
+    }
+
+    private static final class CacheEntry {
+        final long mtime;
+        final long size;
+        final SoftReference<Object> value;
+
+        CacheEntry(long mtime, long size, Object value) {
+            this.mtime = mtime;
+            this.size = size;
+            this.value = new SoftReference<>(value);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for finished validation reports. Implementations write each report's results out as they
+ * arrive so callers can drop them from memory afterwards (see {@link JsonCompare.ValidationReport#retainFailures()}).
+ */
+public interface ResultSink extends Closeable {
+    ResultSink NONE = new ResultSink() {
+        @Override
+        public void write(JsonCompare.ValidationReport report) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    void write(JsonCompare.ValidationReport report) throws IOException;
+
+    default void flush() throws IOException {
+    }
+
+    /** Cell text as printed in reports: newlines folded, null and blank made visible. */
+    static String normalizeCell(String value) {
+        if (value == null) return "<null>";
+        String v = value.replace("\r", " ").replace("\n", " ").trim();
+        if (v.isEmpty()) return "<empty>";
+        return v;
+    }
+}
@@ -0,0 +1,232 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of earlier green runs, persisted under target/ so unchanged pairs are not compared again.
+ * Entries are keyed by (table, lookup key) and hold an MD5 of the expected row and of the fetched DB rows;
+ * a pair whose digests both equal its entry passed before on identical input and is reused as PASS, with
+ * one "&lt;row&gt;" result of reason {@link JsonCompare.Reason#UNCHANGED} so it still shows in the pass report.
+ *
+ * Only passing pairs are stored, and a pair that fails drops its entry. The file is bound to a context
+ * string (the schema directory's content hash), so changed schemas start from an empty store.
+ * Enable with {@code -Dvalidation.incremental=true}; the file is {@code validation.store.file}.
+ */
+public class ResultStore {
+    public static final ResultStore DISABLED = new ResultStore(null, "");
+    private static final int VERSION = 1;
+    static final String UNCHANGED_ROW = "<row>";
+    private static final Log LOG = Log.get("ResultStore");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    });
+
+    private final Path file;
+    private final String context;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder compared = new LongAdder();
+    private volatile boolean modified;
+
+    private ResultStore(Path file, String context) {
+        this.file = file;
+        this.context = context;
+    }
+
+    public static ResultStore fromSystemProperties(String context) {
+        if (!Boolean.getBoolean("validation.incremental")) {
+            return DISABLED;
+        }
+        return open(Path.of(System.getProperty("validation.store.file", "target/validation-store/results.bin")), context);
+    }
+
+    /** Loads the store, or starts empty when the file is missing, unreadable or from another context. */
+    public static ResultStore open(Path file, String context) {
+        ResultStore store = new ResultStore(file, context);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION || !context.equals(in.readUTF())) {
+                LOG.info("store " + file + " is from another schema version; starting empty");
+                return store;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                Entry e = new Entry(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readInt());
+                store.entries.put(key, e);
+            }
+        } catch (NoSuchFileException ex) {
+            return store;
+        } catch (IOException ex) {
+            LOG.warn("store " + file + " unreadable, starting empty: " + ex.getMessage());
+            store.entries.clear();
+        }
+        return store;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    public Fingerprint fingerprint(String tableName, Map<String, String> lookupKey, JsonNode expectedRow, RowSet actualRows) {
+        StringBuilder key = new StringBuilder(tableName);
+        for (Map.Entry<String, String> e : lookupKey.entrySet()) {
+            key.append('\u0000').append(e.getKey()).append('=').append(e.getValue());
+        }
+
+        MessageDigest md = MD5.get();
+        try {
+            md.update(MAPPER.writeValueAsBytes(expectedRow));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        ByteBuffer expected = ByteBuffer.wrap(md.digest());
+
+        for (int c = 0; c < actualRows.columnCount(); c++) {
+            md.update(actualRows.column(c).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+        for (int r = 0; r < actualRows.size(); r++) {
+            md.update((byte) 1);
+            for (int c = 0; c < actualRows.columnCount(); c++) {
+                String v = actualRows.text(r, c);
+                if (v == null) {
+                    md.update((byte) 2);
+                } else {
+                    md.update(v.getBytes(StandardCharsets.UTF_8));
+                    md.update((byte) 0);
+                }
+            }
+        }
+        ByteBuffer actual = ByteBuffer.wrap(md.digest());
+        return new Fingerprint(key.toString(), expected.getLong(), expected.getLong(), actual.getLong(), actual.getLong());
+    }
+
+    /** The stored PASS result when both digests are unchanged, otherwise null. */
+    public JsonCompare.ValidationReport reuse(Fingerprint fp, String sourceSystem, String eventId, String tableName) {
+        Entry e = entries.get(fp.key);
+        if (e == null || !e.matches(fp)) {
+            compared.increment();
+            return null;
+        }
+        reused.increment();
+        JsonCompare.ValidationReport report = new JsonCompare.ValidationReport(sourceSystem, eventId, tableName);
+        report.passCount = e.passCount;
+        report.skippedCount = e.skippedCount;
+        report.unchanged = true;
+        // One visible row so reports list the pair; the counters above already cover its columns.
+        String text = JsonCompare.Reason.UNCHANGED.text;
+        report.results.add(new JsonCompare.ColumnResult(UNCHANGED_ROW, text, text, JsonCompare.Status.PASS, JsonCompare.Reason.UNCHANGED, null));
+        return report;
+    }
+
+    /** Stores a complete PASS; drops the entry for anything else. */
+    public void record(Fingerprint fp, JsonCompare.ValidationReport report) {
+        if ("PASS".equals(report.status) && !report.truncated) {
+            entries.put(fp.key, new Entry(fp.expectedHi, fp.expectedLo, fp.actualHi, fp.actualLo, report.passCount, report.skippedCount));
+            modified = true;
+        } else if (entries.remove(fp.key) != null) {
+            modified = true;
+        }
+    }
+
+    /** Writes the store if anything changed, via a temporary file and an atomic rename. */
+    public void save() throws IOException {
+        if (!isEnabled() || !modified) return;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(context);
+            Map<String, Entry> snapshot = Map.copyOf(entries);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> me : snapshot.entrySet()) {
+                Entry e = me.getValue();
+                out.writeUTF(me.getKey());
+                out.writeLong(e.expectedHi);
+                out.writeLong(e.expectedLo);
+                out.writeLong(e.actualHi);
+                out.writeLong(e.actualLo);
+                out.writeInt(e.passCount);
+                out.writeInt(e.skippedCount);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        modified = false;
+    }
+
+    public long reusedCount() {
+        return reused.sum();
+    }
+
+    public long comparedCount() {
+        return compared.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public static final class Fingerprint {
+        public final String key;
+        final long expectedHi;
+        final long expectedLo;
+        final long actualHi;
+        final long actualLo;
+
+        Fingerprint(String key, long expectedHi, long expectedLo, long actualHi, long actualLo) {
+            this.key = key;
+            this.expectedHi = expectedHi;
+            this.expectedLo = expectedLo;
+            this.actualHi = actualHi;
+            this.actualLo = actualLo;
+        }
+    }
+
+    private static final class Entry {
+        final long expectedHi;
+        final long expectedLo;
+        final long actualHi;
+        final long actualLo;
+        final int passCount;
+        final int skippedCount;
+
+        Entry(long expectedHi, long expectedLo, long actualHi, long actualLo, int passCount, int skippedCount) {
+            this.expectedHi = expectedHi;
+            this.expectedLo = expectedLo;
+            this.actualHi = actualHi;
+            this.actualLo = actualLo;
+            this.passCount = passCount;
+            this.skippedCount = skippedCount;
+        }
+
+        boolean matches(Fingerprint fp) {
+            return expectedHi == fp.expectedHi && expectedLo == fp.expectedLo && actualHi == fp.actualHi && actualLo == fp.actualLo;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.*;
+
+/**
+ * Row digest that MySQL and the JVM compute the same way: MD5 over the column values as text, joined with
+ * CHAR(31), with NULL written as CHAR(0). Both sides render each value in one canonical form chosen by the
+ * column's type, and only types whose server text and driver value are known to render alike take part:
+ * <ul>
+ *   <li>DATETIME as {@code yyyy-MM-dd HH:mm:ss.ffffff} (DATE_FORMAT on the server),</li>
+ *   <li>DATE as {@code yyyy-MM-dd},</li>
+ *   <li>DECIMAL with exactly the column's scale,</li>
+ *   <li>JSON in MySQL's serialization: object keys ordered by length then bytes, ", " and ": " separators,</li>
+ *   <li>INT, SMALLINT, MEDIUMINT, BIGINT and the character types as MySQL renders them with CAST AS CHAR.</li>
+ * </ul>
+ * Every other type is {@link Kind#UNSUPPORTED}: TINYINT and BIT (the driver returns Boolean for TINYINT(1)
+ * and BIT(1), MySQL renders "1"), YEAR (returned as a date), the binary and BLOB types (returned as byte[]),
+ * FLOAT and DOUBLE (exponent forms differ), TIMESTAMP (rendered in the session time zone) and TIME.
+ * Tables with such a column must be fetched.
+ *
+ * {@link #of} is null when the expected row cannot be digested: an unsupported column, or a value that
+ * cannot be brought into the canonical form without changing it (an unparseable date, a decimal with more
+ * digits than the scale). Equal digests mean the DB row renders as {@link #values} of the expected row, so
+ * the comparison can run against those values without fetching the row. Different digests say nothing
+ * about the outcome; such rows must be fetched and compared normally.
+ */
+public final class RowDigest {
+    private static final char SEPARATOR = 31;
+    private static final char NULL_MARKER = 0;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final DateTimeFormatter DATETIME_IN = new DateTimeFormatterBuilder()
+            .appendPattern("uuuu-MM-dd")
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .appendPattern("HH:mm")
+            .optionalStart().appendPattern(":ss").optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd().optionalEnd()
+            .toFormatter();
+    private static final DateTimeFormatter DATETIME_OUT = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSS");
+
+    /** How a column is rendered for the digest, from its type in the result set metadata. */
+    public enum Kind { TEXT, INTEGER, DATE, DATETIME, DECIMAL, JSON, UNSUPPORTED }
+
+    private static final Set<String> INTEGER_TYPES = Set.of("INT", "INTEGER", "SMALLINT", "MEDIUMINT", "BIGINT");
+    private static final Set<String> TEXT_TYPES = Set.of("CHAR", "VARCHAR", "TINYTEXT", "TEXT", "MEDIUMTEXT", "LONGTEXT", "ENUM", "SET");
+
+    /** A digested column: its name, kind and, for DECIMAL, its scale. */
+    public static final class Column {
+        public final String name;
+        public final Kind kind;
+        public final int scale;
+
+        public Column(String name, Kind kind, int scale) {
+            this.name = name;
+            this.kind = kind;
+            this.scale = scale;
+        }
+
+        /** Column of a MySQL type name as JDBC reports it, e.g. "DATETIME" or "BIGINT UNSIGNED". */
+        public static Column of(String name, String typeName, int scale) {
+            String type = typeName == null ? "" : typeName.toUpperCase(Locale.ROOT);
+            if (type.endsWith(" UNSIGNED")) type = type.substring(0, type.length() - " UNSIGNED".length());
+            Kind kind;
+            if (type.equals("DATETIME")) kind = Kind.DATETIME;
+            else if (type.equals("DATE")) kind = Kind.DATE;
+            else if (type.equals("DECIMAL")) kind = Kind.DECIMAL;
+            else if (type.equals("JSON")) kind = Kind.JSON;
+            else if (INTEGER_TYPES.contains(type)) kind = Kind.INTEGER;
+            else if (TEXT_TYPES.contains(type)) kind = Kind.TEXT;
+            else kind = Kind.UNSUPPORTED;
+            return new Column(name, kind, scale);
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + kind + (kind == Kind.DECIMAL ? "(" + scale + ")" : "");
+        }
+    }
+
+    private RowDigest() {
+    }
+
+    /** True when every column has a kind the digest can render. */
+    public static boolean supported(List<Column> columns) {
+        for (Column column : columns) {
+            if (column.kind == Kind.UNSUPPORTED) return false;
+        }
+        return true;
+    }
+
+    /** MD5(CONCAT_WS(...)) over the columns, as a SELECT expression. */
+    public static String sqlExpression(List<Column> columns) {
+        StringBuilder sql = new StringBuilder("MD5(CONCAT_WS(CHAR(31 USING utf8mb4)");
+        for (Column column : columns) {
+            sql.append(", IFNULL(");
+            switch (column.kind) {
+                case DATETIME -> sql.append("DATE_FORMAT(").append(column.name).append(", '%Y-%m-%d %H:%i:%s.%f')");
+                case DATE -> sql.append("DATE_FORMAT(").append(column.name).append(", '%Y-%m-%d')");
+                default -> sql.append("CAST(").append(column.name).append(" AS CHAR)");
+            }
+            sql.append(", CHAR(0 USING utf8mb4))");
+        }
+        return sql.append("))").toString();
+    }
+
+    /**
+     * Each column of the expected row as the driver would return it once the digests match: LocalDateTime,
+     * java.sql.Date and BigDecimal for the temporal and DECIMAL columns, MySQL's text otherwise.
+     * Values that are not in canonical form are kept as text. Null for JSON null or a missing field.
+     */
+    public static Map<String, Object> values(JsonNode expectedRow, List<Column> columns) {
+        Map<String, Object> out = new LinkedHashMap<>(columns.size() * 2);
+        for (Column column : columns) {
+            JsonNode v = expectedRow.get(column.name);
+            if (v == null || v.isNull()) {
+                out.put(column.name, null);
+                continue;
+            }
+            String text = v.isContainerNode() ? v.toString() : v.asText();
+            Object value = text;
+            switch (column.kind) {
+                case DATETIME -> {
+                    LocalDateTime dt = dateTime(text);
+                    if (dt != null) value = dt;
+                }
+                case DATE -> {
+                    LocalDate d = date(text);
+                    if (d != null) value = java.sql.Date.valueOf(d);
+                }
+                case DECIMAL -> {
+                    BigDecimal d = decimal(text, column.scale);
+                    if (d != null) value = d;
+                }
+                case JSON -> value = mysqlJson(v);
+                default -> {
+                }
+            }
+            out.put(column.name, value);
+        }
+        return out;
+    }
+
+    /**
+     * Lower-case hex digest of the expected row, matching {@link #sqlExpression} over the same columns, or
+     * null when a column is unsupported or a value has no canonical form.
+     */
+    public static String of(JsonNode expectedRow, List<Column> columns) {
+        if (!supported(columns)) return null;
+        Map<String, Object> values = values(expectedRow, columns);
+        StringBuilder joined = new StringBuilder();
+        int i = 0;
+        for (Column column : columns) {
+            Object value = values.get(column.name);
+            String text = value == null ? String.valueOf(NULL_MARKER) : digestText(column, value);
+            if (text == null) return null;
+            if (i++ > 0) joined.append(SEPARATOR);
+            joined.append(text);
+        }
+        try {
+            byte[] md5 = MessageDigest.getInstance("MD5").digest(joined.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md5);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Canonical text of a value from {@link #values}, or null when it was left as text for a typed column. */
+    private static String digestText(Column column, Object value) {
+        switch (column.kind) {
+            case DATETIME:
+                return value instanceof LocalDateTime ? DATETIME_OUT.format((LocalDateTime) value) : null;
+            case DATE:
+                return value instanceof java.sql.Date ? value.toString() : null;
+            case DECIMAL:
+                return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : null;
+            default:
+                return (String) value;
+        }
+    }
+
+    /** "yyyy-MM-dd[T| ]HH:mm[:ss[.f]]" with at most microseconds, as MySQL stores it; otherwise null. */
+    static LocalDateTime dateTime(String text) {
+        try {
+            LocalDateTime dt = LocalDateTime.parse(text.trim(), DATETIME_IN);
+            return dt.getNano() % 1_000 == 0 ? dt : null;
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static LocalDate date(String text) {
+        try {
+            return LocalDate.parse(text.trim());
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    /** The value at exactly this scale, or null when that would round it. */
+    private static BigDecimal decimal(String text, int scale) {
+        try {
+            return new BigDecimal(text.trim()).setScale(scale, RoundingMode.UNNECESSARY);
+        } catch (NumberFormatException | ArithmeticException ex) {
+            return null;
+        }
+    }
+
+    /** MySQL's text of a JSON value; a string holding JSON is parsed first, anything else is kept as text. */
+    private static String mysqlJson(JsonNode v) {
+        JsonNode json = v;
+        if (v.isTextual()) {
+            try {
+                json = MAPPER.readTree(v.asText());
+            } catch (IOException ex) {
+                return v.asText();
+            }
+            if (json == null || json.isMissingNode()) return v.asText();
+        }
+        StringBuilder out = new StringBuilder();
+        writeJson(json, out);
+        return out.toString();
+    }
+
+    private static void writeJson(JsonNode node, StringBuilder out) {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            names.sort(RowDigest::compareKeys);
+            out.append('{');
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) out.append(", ");
+                writeString(names.get(i), out);
+                out.append(": ");
+                writeJson(node.get(names.get(i)), out);
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            out.append('[');
+            for (int i = 0; i < node.size(); i++) {
+                if (i > 0) out.append(", ");
+                writeJson(node.get(i), out);
+            }
+            out.append(']');
+        } else if (node.isTextual()) {
+            writeString(node.asText(), out);
+        } else {
+            out.append(node.asText());
+        }
+    }
+
+    /** MySQL orders object keys by UTF-8 length, then bytewise. */
+    private static int compareKeys(String a, String b) {
+        byte[] x = a.getBytes(StandardCharsets.UTF_8);
+        byte[] y = b.getBytes(StandardCharsets.UTF_8);
+        if (x.length != y.length) return Integer.compare(x.length, y.length);
+        return Arrays.compareUnsigned(x, y);
+    }
+
+    private static void writeString(String s, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,78 @@
+package utilities;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic sampling of expected rows. Selection depends only on the seed, table, stratum and row
+ * position, so repeated runs with the same seed check the same rows.
+ *
+ * RANDOM keeps each row independently with the given probability. STRATIFIED keeps
+ * max(1, round(percent * n)) rows of every stratum (payload event), so every event is still checked.
+ *
+ * Configured by validation.samplePercent (default 100), validation.sampleSeed (default 42) and
+ * validation.sampleStrategy (random or stratified, default stratified).
+ */
+public final class RowSampler {
+    public enum Strategy { RANDOM, STRATIFIED }
+
+    public static final RowSampler ALL = new RowSampler(100.0, 0L, Strategy.STRATIFIED);
+
+    private final double percent;
+    private final long seed;
+    private final Strategy strategy;
+
+    public RowSampler(double percent, long seed, Strategy strategy) {
+        this.percent = Math.max(0.0, Math.min(100.0, percent));
+        this.seed = seed;
+        this.strategy = strategy;
+    }
+
+    public static RowSampler fromSystemProperties() {
+        double percent = Double.parseDouble(System.getProperty("validation.samplePercent", "100"));
+        if (percent >= 100.0) {
+            return ALL;
+        }
+        long seed = Long.getLong("validation.sampleSeed", 42L);
+        Strategy strategy = Strategy.valueOf(System.getProperty("validation.sampleStrategy", "stratified").trim().toUpperCase(Locale.ROOT));
+        return new RowSampler(percent, seed, strategy);
+    }
+
+    public boolean isSampling() {
+        return percent < 100.0;
+    }
+
+    /** Indices (0..size-1) of the rows to validate for this table and stratum. */
+    public BitSet select(String table, String stratum, int size) {
+        BitSet keep = new BitSet(size);
+        if (!isSampling()) {
+            keep.set(0, size);
+            return keep;
+        }
+        SplittableRandom rnd = new SplittableRandom(seed * 31 + (table + '\u0000' + stratum).hashCode());
+        if (strategy == Strategy.RANDOM) {
+            for (int i = 0; i < size; i++) {
+                if (rnd.nextDouble() * 100.0 < percent) keep.set(i);
+            }
+            return keep;
+        }
+
+        int k = Math.min(size, Math.max(1, (int) Math.round(percent / 100.0 * size)));
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        for (int i = 0; i < k; i++) {
+            int j = i + rnd.nextInt(size - i);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+            keep.set(order[i]);
+        }
+        return keep;
+    }
+
+    @Override
+    public String toString() {
+        return isSampling() ? strategy.name().toLowerCase(Locale.ROOT) + " " + percent + "% seed=" + seed : "all rows";
+    }
+}
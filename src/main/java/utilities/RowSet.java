@@ -0,0 +1,277 @@
+package utilities;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Column-oriented result set. Column labels are read once; values are stored per column, with
+ * integral, floating point and datetime columns kept in primitive arrays and boxed only on access.
+ * A column's kind is taken from its first non-null value and demoted to plain objects if a later
+ * value does not fit.
+ *
+ * {@link #select(int[])} returns a view over a subset of rows that shares the same storage.
+ */
+public final class RowSet {
+    private static final int KIND_OBJECT = 0;
+    private static final int KIND_INT = 1;
+    private static final int KIND_LONG = 2;
+    private static final int KIND_DOUBLE = 3;
+    private static final int KIND_FLOAT = 4;
+    private static final int KIND_LOCAL_DATETIME = 5;
+    private static final int KIND_TIMESTAMP = 6;
+    private static final int KIND_UNSET = -1;
+
+    private final String[] columns;
+    private final Map<String, Integer> columnIndex;
+    private final Column[] data;
+    private final int[] selection;
+    private final int physicalSize;
+
+    private RowSet(String[] columns, Map<String, Integer> columnIndex, Column[] data, int physicalSize, int[] selection) {
+        this.columns = columns;
+        this.columnIndex = columnIndex;
+        this.data = data;
+        this.physicalSize = physicalSize;
+        this.selection = selection;
+    }
+
+    public static RowSet from(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int colCount = meta.getColumnCount();
+        String[] columns = new String[colCount];
+        Map<String, Integer> index = new HashMap<>(colCount * 2);
+        Column[] data = new Column[colCount];
+        for (int i = 0; i < colCount; i++) {
+            columns[i] = meta.getColumnLabel(i + 1);
+            index.put(columns[i], i);
+            data[i] = new Column();
+        }
+
+        int rows = 0;
+        while (rs.next()) {
+            for (int i = 0; i < colCount; i++) {
+                data[i].add(rows, rs.getObject(i + 1));
+            }
+            rows++;
+        }
+        return new RowSet(columns, index, data, rows, null);
+    }
+
+    public static RowSet empty() {
+        return new RowSet(new String[0], Collections.emptyMap(), new Column[0], 0, null);
+    }
+
+    public int size() {
+        return selection != null ? selection.length : physicalSize;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public String column(int col) {
+        return columns[col];
+    }
+
+    /** Index of the column with this label, or -1. */
+    public int columnIndex(String label) {
+        Integer idx = columnIndex.get(label);
+        return idx == null ? -1 : idx;
+    }
+
+    public boolean isNull(int row, int col) {
+        return data[col].isNull(physical(row));
+    }
+
+    public Object get(int row, int col) {
+        return data[col].get(physical(row));
+    }
+
+    /** Value rendered as String.valueOf(value).trim(), or null for SQL NULL. */
+    public String text(int row, int col) {
+        return data[col].text(physical(row));
+    }
+
+    public RowSet select(int[] rows) {
+        int[] physicalRows = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            physicalRows[i] = physical(rows[i]);
+        }
+        return new RowSet(columns, columnIndex, data, physicalSize, physicalRows);
+    }
+
+    /** View of the same rows without one column, sharing storage. */
+    public RowSet withoutColumn(int col) {
+        String[] keptColumns = new String[columns.length - 1];
+        Column[] keptData = new Column[columns.length - 1];
+        Map<String, Integer> index = new HashMap<>(keptColumns.length * 2);
+        for (int c = 0, k = 0; c < columns.length; c++) {
+            if (c == col) continue;
+            keptColumns[k] = columns[c];
+            keptData[k] = data[c];
+            index.put(columns[c], k++);
+        }
+        return new RowSet(keptColumns, index, keptData, physicalSize, selection);
+    }
+
+    public Map<String, Object> toMap(int row) {
+        Map<String, Object> out = new HashMap<>(columns.length * 2);
+        for (int c = 0; c < columns.length; c++) {
+            out.put(columns[c], get(row, c));
+        }
+        return out;
+    }
+
+    public List<Map<String, Object>> toMaps() {
+        List<Map<String, Object>> out = new ArrayList<>(size());
+        for (int r = 0; r < size(); r++) {
+            out.add(toMap(r));
+        }
+        return out;
+    }
+
+    private int physical(int row) {
+        return selection != null ? selection[row] : row;
+    }
+
+    private static final class Column {
+        int kind = KIND_UNSET;
+        int size;
+        BitSet nulls = new BitSet();
+        long[] longs;
+        double[] doubles;
+        int[] nanos;
+        Object[] objects;
+
+        void add(int row, Object value) {
+            ensureCapacity(row + 1);
+            size = row + 1;
+            if (value == null) {
+                nulls.set(row);
+                return;
+            }
+            if (kind == KIND_UNSET) {
+                kind = kindOf(value);
+                allocate(Math.max(16, row + 1));
+            } else if (kind != KIND_OBJECT && kind != kindOf(value)) {
+                demote();
+            }
+
+            switch (kind) {
+                case KIND_INT, KIND_LONG -> longs[row] = ((Number) value).longValue();
+                case KIND_DOUBLE, KIND_FLOAT -> doubles[row] = ((Number) value).doubleValue();
+                case KIND_LOCAL_DATETIME -> storeDateTime(row, (LocalDateTime) value);
+                case KIND_TIMESTAMP -> storeDateTime(row, ((Timestamp) value).toLocalDateTime());
+                default -> objects[row] = value;
+            }
+        }
+
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        Object get(int row) {
+            if (nulls.get(row)) return null;
+            switch (kind) {
+                case KIND_INT:
+                    return (int) longs[row];
+                case KIND_LONG:
+                    return longs[row];
+                case KIND_DOUBLE:
+                    return doubles[row];
+                case KIND_FLOAT:
+                    return (float) doubles[row];
+                case KIND_LOCAL_DATETIME:
+                    return dateTime(row);
+                case KIND_TIMESTAMP:
+                    return Timestamp.valueOf(dateTime(row));
+                default:
+                    return objects[row];
+            }
+        }
+
+        String text(int row) {
+            if (nulls.get(row)) return null;
+            switch (kind) {
+                case KIND_INT:
+                case KIND_LONG:
+                    return Long.toString(longs[row]);
+                case KIND_DOUBLE:
+                    return Double.toString(doubles[row]);
+                case KIND_FLOAT:
+                    return Float.toString((float) doubles[row]);
+                default:
+                    return String.valueOf(get(row)).trim();
+            }
+        }
+
+        private static int kindOf(Object value) {
+            if (value instanceof Integer) return KIND_INT;
+            if (value instanceof Long) return KIND_LONG;
+            if (value instanceof Double) return KIND_DOUBLE;
+            if (value instanceof Float) return KIND_FLOAT;
+            if (value instanceof LocalDateTime) return KIND_LOCAL_DATETIME;
+            if (value instanceof Timestamp) return KIND_TIMESTAMP;
+            return KIND_OBJECT;
+        }
+
+        private void storeDateTime(int row, LocalDateTime value) {
+            longs[row] = value.toEpochSecond(ZoneOffset.UTC);
+            nanos[row] = value.getNano();
+        }
+
+        private LocalDateTime dateTime(int row) {
+            return LocalDateTime.ofEpochSecond(longs[row], nanos[row], ZoneOffset.UTC);
+        }
+
+        private void allocate(int capacity) {
+            switch (kind) {
+                case KIND_INT, KIND_LONG -> longs = new long[capacity];
+                case KIND_DOUBLE, KIND_FLOAT -> doubles = new double[capacity];
+                case KIND_LOCAL_DATETIME, KIND_TIMESTAMP -> {
+                    longs = new long[capacity];
+                    nanos = new int[capacity];
+                }
+                default -> objects = new Object[capacity];
+            }
+        }
+
+        private void ensureCapacity(int needed) {
+            int capacity = capacity();
+            if (kind == KIND_UNSET || needed <= capacity) return;
+            int next = Math.max(needed, capacity * 2);
+            if (longs != null) longs = Arrays.copyOf(longs, next);
+            if (doubles != null) doubles = Arrays.copyOf(doubles, next);
+            if (nanos != null) nanos = Arrays.copyOf(nanos, next);
+            if (objects != null) objects = Arrays.copyOf(objects, next);
+        }
+
+        private int capacity() {
+            if (longs != null) return longs.length;
+            if (doubles != null) return doubles.length;
+            if (objects != null) return objects.length;
+            return 0;
+        }
+
+        private void demote() {
+            Object[] boxed = new Object[Math.max(16, capacity())];
+            for (int r = 0; r < size - 1; r++) {
+                boxed[r] = get(r);
+            }
+            longs = null;
+            doubles = null;
+            nanos = null;
+            objects = boxed;
+            kind = KIND_OBJECT;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Process-wide view of a schema directory: lookup columns (lookup.json and &lt;table&gt;_lookup.json),
+ * table column policy (table_columns.json) and column rules (&lt;table&gt;_&lt;column&gt;.schema.json).
+ *
+ * The directory is loaded once per JVM and column rules are compiled once ({@link CompiledSchema.CompiledRule}).
+ * The parsed policies and the compiled rules are also written to a binary snapshot keyed by a SHA-256 over
+ * every file name and content, so later runs with unchanged schemas skip JSON parsing and rule compilation.
+ * Snapshots live under schema.snapshot.dir (default target/schema-cache) and can be turned off with
+ * -Dschema.snapshot.enabled=false. A file that cannot be read or parsed is skipped with a warning, and no
+ * snapshot is written for that directory state.
+ *
+ * Everything returned is shared between callers and must not be modified.
+ */
+public class SchemaRegistry {
+    private static final Map<Path, SchemaRegistry> REGISTRIES = new ConcurrentHashMap<>();
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final Log LOG = Log.get("SchemaRegistry");
+
+    private final Path schemaDir;
+    private final Map<String, LookupSpec> lookups = new HashMap<>();
+    private final Map<String, TablePolicy> policies = new HashMap<>();
+    private final Map<String, JsonCompare.ColumnRule> columnRules = new HashMap<>();
+    private boolean fromSnapshot;
+    private String contentHash = "";
+
+    private SchemaRegistry(Path schemaDir) {
+        this.schemaDir = schemaDir;
+    }
+
+    public static SchemaRegistry forDir(Path schemaDir) {
+        Path key = schemaDir.toAbsolutePath().normalize();
+        return REGISTRIES.computeIfAbsent(key, k -> {
+            try {
+                return load(k);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to load schema dir " + k, ex);
+            }
+        });
+    }
+
+    public LookupSpec lookup(String tableName) {
+        return lookups.getOrDefault(tableName, LookupSpec.EMPTY);
+    }
+
+    public TablePolicy tablePolicy(String tableName) {
+        return policies.getOrDefault(tableName, TablePolicy.EMPTY);
+    }
+
+    /** The shared rule for the column, carrying its compiled form; treat it as read-only. */
+    public JsonCompare.ColumnRule columnRule(String tableName, String column) {
+        return columnRules.get(tableName + "_" + column);
+    }
+
+    public boolean loadedFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    /** SHA-256 over the schema files' names and contents; empty when the directory does not exist. */
+    public String contentHash() {
+        return contentHash;
+    }
+
+    private static SchemaRegistry load(Path schemaDir) throws IOException {
+        SchemaRegistry registry = new SchemaRegistry(schemaDir);
+        if (!Files.isDirectory(schemaDir)) {
+            return registry;
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(schemaDir)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(".json"))
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList();
+        }
+
+        String contentHash = contentHash(files);
+        registry.contentHash = contentHash;
+        boolean snapshots = Boolean.parseBoolean(System.getProperty("schema.snapshot.enabled", "true"));
+        Path snapshot = Path.of(System.getProperty("schema.snapshot.dir", "target/schema-cache"))
+                .resolve(Integer.toHexString(schemaDir.toString().hashCode()) + ".bin");
+
+        if (snapshots && Files.exists(snapshot) && registry.readSnapshot(snapshot, contentHash)) {
+            registry.fromSnapshot = true;
+            return registry;
+        }
+
+        boolean complete = registry.parse(files);
+        if (snapshots && complete) {
+            try {
+                registry.writeSnapshot(snapshot, contentHash);
+            } catch (IOException ex) {
+                LOG.warn("snapshot write failed: " + ex.getMessage());
+            }
+        }
+        return registry;
+    }
+
+    /** Parses every file it can; returns false if any was skipped. */
+    private boolean parse(List<Path> files) {
+        ObjectMapper mapper = new ObjectMapper();
+        ResourceLoader resources = new ResourceLoader(mapper, 0);
+        Map<String, JsonNode> perTableLookups = new TreeMap<>();
+        JsonNode globalLookup = null;
+        boolean complete = true;
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            try {
+                if (name.equals("lookup.json")) {
+                    globalLookup = resources.readTree(file);
+                } else if (name.endsWith("_lookup.json")) {
+                    perTableLookups.put(name.substring(0, name.length() - "_lookup.json".length()), resources.readTree(file));
+                } else if (name.equals("table_columns.json")) {
+                    parsePolicies(resources.readTree(file));
+                } else if (name.endsWith(".schema.json")) {
+                    JsonCompare.ColumnRule rule = resources.readValue(file, JsonCompare.ColumnRule.class);
+                    rule.compiled = new CompiledSchema.CompiledRule("", rule);
+                    columnRules.put(name.substring(0, name.length() - ".schema.json".length()), rule);
+                }
+            } catch (IOException | RuntimeException ex) {
+                LOG.warn("skipping schema file " + file + ": " + ex.getMessage());
+                complete = false;
+            }
+        }
+
+        // Per-table lookup files are applied before the global entry, matching the previous resolution order.
+        Set<String> tables = new TreeSet<>(perTableLookups.keySet());
+        if (globalLookup != null && globalLookup.isObject()) {
+            globalLookup.fieldNames().forEachRemaining(tables::add);
+        }
+        for (String table : tables) {
+            LookupBuilder spec = new LookupBuilder();
+            applyLookupNode(spec, perTableLookups.get(table));
+            if (globalLookup != null && globalLookup.isObject()) {
+                applyLookupNode(spec, globalLookup.get(table));
+            }
+            lookups.put(table, new LookupSpec(spec.columns, spec.idColumn, spec.orderIdColumn));
+        }
+        return complete;
+    }
+
+    private void parsePolicies(JsonNode root) {
+        if (!root.isObject()) return;
+        Iterator<Map.Entry<String, JsonNode>> tables = root.fields();
+        while (tables.hasNext()) {
+            Map.Entry<String, JsonNode> e = tables.next();
+            JsonNode node = e.getValue();
+            if (node.isArray() && node.size() > 0) node = node.get(0);
+            if (!node.isObject()) continue;
+            List<String> ignore = new ArrayList<>(readStringArray(node, "ignore"));
+            ignore.addAll(readStringArray(node, "ignored"));
+            policies.put(e.getKey(), new TablePolicy(
+                    dedup(readStringArray(node, "required")), dedup(readStringArray(node, "optional")), dedup(ignore)));
+        }
+    }
+
+    private static void applyLookupNode(LookupBuilder spec, JsonNode node) {
+        if (node == null || node.isNull()) return;
+
+        if (node.isTextual()) {
+            spec.columns.add(node.asText().trim());
+            return;
+        }
+        if (node.isArray()) {
+            for (JsonNode n : node) {
+                if (n.isTextual()) spec.columns.add(n.asText().trim());
+            }
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        if (node.has("idColumn")) {
+            String v = node.get("idColumn").asText().trim();
+            if (!v.isEmpty()) {
+                spec.idColumn = v;
+                spec.columns.add(v);
+            }
+        }
+        if (node.has("orderIdColumn")) {
+            String v = node.get("orderIdColumn").asText().trim();
+            if (!v.isEmpty()) {
+                spec.orderIdColumn = v;
+                spec.columns.add(v);
+            }
+        }
+        if (node.has("columns") && node.get("columns").isArray()) {
+            for (JsonNode c : node.get("columns")) {
+                if (c.isTextual()) spec.columns.add(c.asText().trim());
+            }
+        }
+    }
+
+    private static List<String> readStringArray(JsonNode node, String field) {
+        List<String> out = new ArrayList<>();
+        if (node == null || !node.has(field) || !node.get(field).isArray()) return out;
+        for (JsonNode v : node.get(field)) {
+            if (v.isTextual()) {
+                String s = v.asText().trim();
+                if (!s.isEmpty()) out.add(s.replace('-', '_'));
+            }
+        }
+        return out;
+    }
+
+    private static List<String> dedup(List<String> values) {
+        return new ArrayList<>(new LinkedHashSet<>(values));
+    }
+
+    private static String contentHash(List<Path> files) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        for (Path file : files) {
+            digest.update(file.getFileName().toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try {
+                digest.update(Files.readAllBytes(file));
+            } catch (IOException ex) {
+                // parse() reports and skips the file; the hash only has to differ from a readable state.
+                digest.update((byte) 1);
+            }
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private boolean readSnapshot(Path snapshot, String contentHash) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_VERSION || !contentHash.equals(in.readUTF())) {
+                return false;
+            }
+            int lookupCount = in.readInt();
+            for (int i = 0; i < lookupCount; i++) {
+                String table = in.readUTF();
+                lookups.put(table, new LookupSpec(readList(in), readNullable(in), readNullable(in)));
+            }
+            int policyCount = in.readInt();
+            for (int i = 0; i < policyCount; i++) {
+                String table = in.readUTF();
+                policies.put(table, new TablePolicy(readList(in), readList(in), readList(in)));
+            }
+            int ruleCount = in.readInt();
+            for (int i = 0; i < ruleCount; i++) {
+                String key = in.readUTF();
+                JsonCompare.ColumnRule rule = new JsonCompare.ColumnRule();
+                rule.type = readNullable(in);
+                rule.notNull = in.readBoolean();
+                rule.allowed = readList(in);
+                rule.jsonRequiredFields = readList(in);
+                rule.jsonRequiredPaths = readList(in);
+                rule.jsonOptionalPaths = readList(in);
+                rule.jsonIgnorePaths = readList(in);
+                rule.jsonValidateMode = readNullable(in);
+                rule.timePattern = readNullable(in);
+                rule.compiled = new CompiledSchema.CompiledRule(rule, in.readBoolean(), in.readBoolean(), in.readBoolean(),
+                        in.readBoolean(), in.readBoolean(), readSet(in), readList(in), readList(in), readSet(in), readSet(in), readSet(in));
+                columnRules.put(key, rule);
+            }
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            lookups.clear();
+            policies.clear();
+            columnRules.clear();
+            return false;
+        }
+    }
+
+    private void writeSnapshot(Path snapshot, String contentHash) throws IOException {
+        Files.createDirectories(snapshot.getParent());
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeUTF(contentHash);
+            out.writeInt(lookups.size());
+            for (Map.Entry<String, LookupSpec> e : lookups.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeList(out, e.getValue().columns);
+                writeNullable(out, e.getValue().idColumn);
+                writeNullable(out, e.getValue().orderIdColumn);
+            }
+            out.writeInt(policies.size());
+            for (Map.Entry<String, TablePolicy> e : policies.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeList(out, e.getValue().required);
+                writeList(out, e.getValue().optional);
+                writeList(out, e.getValue().ignore);
+            }
+            out.writeInt(columnRules.size());
+            for (Map.Entry<String, JsonCompare.ColumnRule> e : columnRules.entrySet()) {
+                JsonCompare.ColumnRule rule = e.getValue();
+                out.writeUTF(e.getKey());
+                writeNullable(out, rule.type);
+                out.writeBoolean(rule.notNull);
+                writeList(out, rule.allowed);
+                writeList(out, rule.jsonRequiredFields);
+                writeList(out, rule.jsonRequiredPaths);
+                writeList(out, rule.jsonOptionalPaths);
+                writeList(out, rule.jsonIgnorePaths);
+                writeNullable(out, rule.jsonValidateMode);
+                writeNullable(out, rule.timePattern);
+                CompiledSchema.CompiledRule compiled = rule.compiled;
+                out.writeBoolean(compiled.typed);
+                out.writeBoolean(compiled.time);
+                out.writeBoolean(compiled.json);
+                out.writeBoolean(compiled.requiredOnly);
+                out.writeBoolean(compiled.jsonSchemaEmpty);
+                writeList(out, new ArrayList<>(compiled.allowed));
+                writeList(out, compiled.jsonRequiredFields);
+                writeList(out, compiled.jsonRequiredPaths);
+                writeList(out, new ArrayList<>(compiled.ignoreNames));
+                writeList(out, new ArrayList<>(compiled.optionalNames));
+                writeList(out, new ArrayList<>(compiled.requiredNames));
+            }
+        }
+        Files.move(tmp, snapshot, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeList(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String v : values) writeNullable(out, v);
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) return null;
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(readNullable(in));
+        return values;
+    }
+
+    private static Set<String> readSet(DataInputStream in) throws IOException {
+        return new HashSet<>(readList(in));
+    }
+
+    private static List<String> frozen(List<String> values) {
+        return values == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    private static final class LookupBuilder {
+        final List<String> columns = new ArrayList<>();
+        String idColumn;
+        String orderIdColumn;
+    }
+
+    public static final class LookupSpec {
+        static final LookupSpec EMPTY = new LookupSpec(null, null, null);
+
+        public final List<String> columns;
+        public final String idColumn;
+        public final String orderIdColumn;
+
+        LookupSpec(List<String> columns, String idColumn, String orderIdColumn) {
+            this.columns = frozen(columns);
+            this.idColumn = idColumn;
+            this.orderIdColumn = orderIdColumn;
+        }
+    }
+
+    public static final class TablePolicy {
+        static final TablePolicy EMPTY = new TablePolicy(null, null, null);
+
+        public final List<String> required;
+        public final List<String> optional;
+        public final List<String> ignore;
+
+        TablePolicy(List<String> required, List<String> optional, List<String> ignore) {
+            this.required = frozen(required);
+            this.optional = frozen(optional);
+            this.ignore = frozen(ignore);
+        }
+    }
+}
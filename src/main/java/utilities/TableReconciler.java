@@ -0,0 +1,213 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Full-table reconciliation: pages through a table (or a time window of it) in key order and joins each
+ * page against the expected rows on the lookup key columns as it arrives. Keys are joined on
+ * {@link databasecolumnUtil.ColumnInfo#comparable} forms, so values the server treats as equal (by
+ * collation or numeric value) pair up. Matched rows are compared with {@link JsonCompare}; database rows
+ * with no expected row are extra, and expected rows never seen are missing.
+ *
+ * Only the expected rows and one page are held in memory. Outcomes are counted exactly, keys are kept
+ * for the first {@code reconcile.maxSamples} of each kind, and every per-row report goes to the sink.
+ * Missing and extra rows count against the compare's {@link FailureBudget}; once it is exhausted the scan
+ * stops and the result is marked truncated.
+ */
+public class TableReconciler {
+    private static final Log LOG = Log.get("Reconcile");
+
+    private final databasecolumnUtil dbUtil;
+    private final JsonCompare jsonCompare;
+    private final String host;
+    private final int port;
+    private final String database;
+    private final String user;
+    private final String password;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public int pageSize = Integer.getInteger("reconcile.pageSize", 1_000);
+    public int maxSamples = Integer.getInteger("reconcile.maxSamples", 20);
+
+    public TableReconciler(databasecolumnUtil dbUtil, JsonCompare jsonCompare, String host, int port, String database, String user, String password) {
+        this.dbUtil = dbUtil;
+        this.jsonCompare = jsonCompare;
+        this.host = host;
+        this.port = port;
+        this.database = database;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * @param expectedRows expected rows of the table; with a window, only rows whose window column lies
+     *                     inside it are expected, since the scan cannot return any other
+     * @param window       restricts the scan, or null for the whole table
+     */
+    public Result reconcile(String tableName, List<String> keyColumns, List<JsonNode> expectedRows, JsonCompare.Schema schema,
+                            databasecolumnUtil.TimeWindow window, ResultSink sink) throws SQLException {
+        Result result = new Result(tableName);
+        FailureBudget budget = jsonCompare.failureBudget();
+        Map<String, databasecolumnUtil.ColumnInfo> columnInfo = dbUtil.columnInfo(host, port, database, user, password, tableName);
+        List<databasecolumnUtil.ColumnInfo> keyInfo = new ArrayList<>(keyColumns.size());
+        for (String column : keyColumns) {
+            keyInfo.add(columnInfo.get(column));
+        }
+        Map<List<String>, ArrayDeque<Integer>> pending = new HashMap<>();
+        BitSet expected = new BitSet(expectedRows.size());
+        for (int i = 0; i < expectedRows.size(); i++) {
+            JsonNode row = expectedRows.get(i);
+            if (window != null) {
+                JsonNode at = row.get(window.column);
+                if (at == null || at.isNull() || !window.contains(at.asText())) {
+                    continue;
+                }
+            }
+            expected.set(i);
+            pending.computeIfAbsent(comparable(expectedKey(row, keyColumns), keyInfo), k -> new ArrayDeque<>()).add(i);
+        }
+        result.expectedRows = expected.cardinality();
+        LOG.info("table=" + tableName + " keys=" + keyColumns + " expected=" + result.expectedRows
+                + (window == null ? "" : " window=" + window) + " pageSize=" + pageSize);
+
+        result.scannedRows = dbUtil.scanByKeyset(host, port, database, user, password, tableName, keyColumns, window, pageSize, page -> {
+            result.pages++;
+            int[] keyIdx = new int[keyColumns.size()];
+            for (int c = 0; c < keyIdx.length; c++) {
+                keyIdx[c] = page.columnIndex(keyColumns.get(c));
+            }
+            for (int r = 0; r < page.size(); r++) {
+                if (budget.exhausted()) {
+                    result.truncated = true;
+                    return false;
+                }
+                List<String> key = new ArrayList<>(keyIdx.length);
+                for (int c : keyIdx) {
+                    key.add(c < 0 ? null : page.text(r, c));
+                }
+                ArrayDeque<Integer> candidates = pending.get(comparable(key, keyInfo));
+                Integer pos = candidates == null ? null : candidates.poll();
+                if (pos == null) {
+                    result.extraRows++;
+                    sample(result.extraKeys, key);
+                    write(sink, rowError(budget, tableName, key, "Unexpected row in database (no expected row for key)"));
+                    continue;
+                }
+                expected.clear(pos);
+                result.matchedRows++;
+                JsonCompare.ValidationReport report = jsonCompare.validateTable("phpmyadmin", keyText(key), tableName,
+                        page.select(new int[]{r}), new int[1], mapper.createArrayNode().add(expectedRows.get(pos)), schema);
+                if ("FAIL".equals(report.status)) {
+                    result.mismatchedRows++;
+                    sample(result.mismatchedKeys, key);
+                }
+                write(sink, report);
+            }
+            return true;
+        });
+
+        for (int i = expected.nextSetBit(0); i >= 0 && !result.truncated; i = expected.nextSetBit(i + 1)) {
+            if (budget.exhausted()) {
+                result.truncated = true;
+                break;
+            }
+            List<String> key = expectedKey(expectedRows.get(i), keyColumns);
+            result.missingRows++;
+            sample(result.missingKeys, key);
+            write(sink, rowError(budget, tableName, key, "Expected row missing in database"));
+        }
+
+        if (Metrics.ENABLED) {
+            Metrics metrics = Metrics.shared();
+            metrics.counter("reconcile_rows_total", "table", tableName, "outcome", "matched").add(result.matchedRows - result.mismatchedRows);
+            metrics.counter("reconcile_rows_total", "table", tableName, "outcome", "mismatched").add(result.mismatchedRows);
+            metrics.counter("reconcile_rows_total", "table", tableName, "outcome", "missing").add(result.missingRows);
+            metrics.counter("reconcile_rows_total", "table", tableName, "outcome", "extra").add(result.extraRows);
+        }
+        return result;
+    }
+
+    private static List<String> expectedKey(JsonNode row, List<String> keyColumns) {
+        List<String> key = new ArrayList<>(keyColumns.size());
+        for (String column : keyColumns) {
+            JsonNode v = row.get(column.replace('-', '_'));
+            key.add(v == null || v.isNull() ? null : v.asText().trim());
+        }
+        return key;
+    }
+
+    private static List<String> comparable(List<String> key, List<databasecolumnUtil.ColumnInfo> keyInfo) {
+        List<String> out = new ArrayList<>(key.size());
+        for (int i = 0; i < key.size(); i++) {
+            databasecolumnUtil.ColumnInfo info = keyInfo.get(i);
+            out.add(info == null ? key.get(i) : info.comparable(key.get(i)));
+        }
+        return out;
+    }
+
+    private static String keyText(List<String> key) {
+        StringJoiner joiner = new StringJoiner("|");
+        for (String k : key) joiner.add(k == null ? "<null>" : k);
+        return joiner.toString();
+    }
+
+    private void sample(List<String> samples, List<String> key) {
+        if (samples.size() < maxSamples) samples.add(keyText(key));
+    }
+
+    private static JsonCompare.ValidationReport rowError(FailureBudget budget, String tableName, List<String> key, String error) {
+        JsonCompare.ValidationReport report = new JsonCompare.ValidationReport("phpmyadmin", keyText(key), tableName);
+        report.budget = budget;
+        report.addGlobalError(error);
+        report.finalizeStatus();
+        return report;
+    }
+
+    private static void write(ResultSink sink, JsonCompare.ValidationReport report) {
+        try {
+            sink.write(report);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static class Result {
+        public final String tableName;
+        public long expectedRows;
+        public long scannedRows;
+        public long matchedRows;
+        public long mismatchedRows;
+        public long missingRows;
+        public long extraRows;
+        public int pages;
+        /** Set when the failure budget ran out before the table was fully reconciled. */
+        public boolean truncated;
+        public final List<String> mismatchedKeys = new ArrayList<>();
+        public final List<String> missingKeys = new ArrayList<>();
+        public final List<String> extraKeys = new ArrayList<>();
+
+        public Result(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public boolean clean() {
+            return mismatchedRows == 0 && missingRows == 0 && extraRows == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "table=" + tableName + " expected=" + expectedRows + " scanned=" + scannedRows + " pages=" + pages
+                    + " matched=" + matchedRows + " mismatched=" + mismatchedRows + " missing=" + missingRows + " extra=" + extraRows
+                    + (truncated ? " (stopped: failure budget exhausted)" : "")
+                    + (mismatchedKeys.isEmpty() ? "" : "\n  mismatched keys: " + mismatchedKeys)
+                    + (missingKeys.isEmpty() ? "" : "\n  missing keys: " + missingKeys)
+                    + (extraKeys.isEmpty() ? "" : "\n  extra keys: " + extraKeys);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package utilities;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs independent units of validation work (DB fetches, table compares) concurrently on a bounded
+ * thread pool, limiting how many units of the same table run at once. Units over a table's limit wait in
+ * that table's queue, not on a worker thread, and are handed to the pool as its running units finish.
+ * Results come back in submission order so reports stay deterministic regardless of completion order.
+ *
+ * Sizing is read from system properties: validation.parallelism (default: available processors)
+ * and validation.perTableConcurrency (default: parallelism).
+ */
+public class ValidationEngine implements AutoCloseable {
+    private final ExecutorService executor;
+    private final int perTableConcurrency;
+    private final Map<String, TableQueue> tableQueues = new ConcurrentHashMap<>();
+
+    public ValidationEngine() {
+        this(Integer.getInteger("validation.parallelism", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("validation.perTableConcurrency", 0));
+    }
+
+    public ValidationEngine(int parallelism, int perTableConcurrency) {
+        int p = Math.max(1, parallelism);
+        this.executor = Executors.newFixedThreadPool(p, r -> {
+            Thread t = new Thread(r, "validation-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.perTableConcurrency = perTableConcurrency > 0 ? perTableConcurrency : p;
+    }
+
+    public ValidationEngine(ExecutorService executor, int perTableConcurrency) {
+        this.executor = executor;
+        this.perTableConcurrency = Math.max(1, perTableConcurrency);
+    }
+
+    public static <T> Unit<T> unit(String tableName, Callable<T> work) {
+        return new Unit<>(tableName, work);
+    }
+
+    public <T> List<T> runAll(List<Unit<T>> units) throws Exception {
+        return runAll(units, () -> false);
+    }
+
+    /**
+     * Like {@link #runAll(List)}, but once {@code stop} returns true no further units are started:
+     * queued ones are cancelled and their slot in the result list is null. Units already running finish.
+     */
+    public <T> List<T> runAll(List<Unit<T>> units, BooleanSupplier stop) throws Exception {
+        List<Future<T>> futures = new ArrayList<>(units.size());
+        for (Unit<T> unit : units) {
+            FutureTask<T> task = new FutureTask<>(() -> stop.getAsBoolean() ? null : unit.work.call());
+            futures.add(task);
+            tableQueues.computeIfAbsent(unit.tableName, k -> new TableQueue()).submit(task);
+        }
+
+        List<T> results = new ArrayList<>(units.size());
+        boolean stopped = false;
+        try {
+            for (Future<T> f : futures) {
+                if (!stopped && stop.getAsBoolean()) {
+                    stopped = true;
+                    for (Future<T> pending : futures) {
+                        pending.cancel(false);
+                    }
+                }
+                try {
+                    results.add(f.get());
+                } catch (CancellationException ex) {
+                    results.add(null);
+                }
+            }
+        } catch (ExecutionException ex) {
+            for (Future<T> f : futures) {
+                f.cancel(true);
+            }
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+        return results;
+    }
+
+    /** Starts at most perTableConcurrency of one table's tasks; the rest start as running ones finish. */
+    private final class TableQueue {
+        private final ArrayDeque<FutureTask<?>> waiting = new ArrayDeque<>();
+        private int running;
+
+        void submit(FutureTask<?> task) {
+            synchronized (this) {
+                if (running >= perTableConcurrency) {
+                    waiting.add(task);
+                    return;
+                }
+                running++;
+            }
+            start(task);
+        }
+
+        private void start(FutureTask<?> task) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        startNext();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                // Engine closed: nothing queued here can run any more.
+                task.cancel(false);
+                synchronized (this) {
+                    running = 0;
+                    for (FutureTask<?> w : waiting) w.cancel(false);
+                    waiting.clear();
+                }
+            }
+        }
+
+        private void startNext() {
+            FutureTask<?> next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            start(next);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public static class Unit<T> {
+        public final String tableName;
+        public final Callable<T> work;
+
+        public Unit(String tableName, Callable<T> work) {
+            this.tableName = tableName;
+            this.work = work;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package utilities;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Format check for a single column value. Regex matchers are compiled once per pattern string and
+ * shared; the default datetime formats use {@link DateTimeMatcher}, which does not allocate.
+ */
+public interface ValueMatcher {
+    boolean matches(String value);
+
+    static ValueMatcher regex(String pattern) {
+        return RegexCache.get(pattern);
+    }
+
+    final class RegexCache {
+        private static final Map<String, ValueMatcher> CACHE = new ConcurrentHashMap<>();
+
+        private RegexCache() {
+        }
+
+        static ValueMatcher get(String pattern) {
+            return CACHE.computeIfAbsent(pattern, p -> {
+                Pattern compiled = Pattern.compile(p);
+                return v -> v != null && compiled.matcher(v).matches();
+            });
+        }
+    }
+}
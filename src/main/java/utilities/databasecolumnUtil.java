@@ -1,9 +1,34 @@
 package utilities;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.text.Collator;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 public class databasecolumnUtil {
+    private static final int BATCH_CHUNK_SIZE = Math.max(1, Integer.getInteger("db.batch.chunkSize", 500));
+    private static final Log LOG = Log.get("DB");
+    static final String ORDINALS_COLUMN = "batch_ordinals__";
+
+    private final ConnectionPool pool;
+    private final Map<String, List<String>> tableColumns = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ColumnInfo>> columnInfo = new ConcurrentHashMap<>();
+
+    public databasecolumnUtil() {
+        this(ConnectionPool.shared());
+    }
+
+    public databasecolumnUtil(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public Map<String, ConnectionPool.PoolMetrics> poolMetrics() {
+        return pool.metrics();
+    }
+
     public List<Map<String, Object>> fetchByCriteria(
             String host,
             int port,
@@ -12,6 +37,18 @@ public class databasecolumnUtil {
             String password,
             String tableName,
             LinkedHashMap<String, String> criteria
+    ) throws SQLException {
+        return fetchRowSetByCriteria(host, port, database, user, password, tableName, criteria).toMaps();
+    }
+
+    public RowSet fetchRowSetByCriteria(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            LinkedHashMap<String, String> criteria
     ) throws SQLException {
         if (criteria == null || criteria.isEmpty()) {
             throw new IllegalArgumentException("No lookup criteria provided for table " + tableName);
@@ -24,31 +61,20 @@ public class databasecolumnUtil {
             query.append(column).append(" = ?");
         }
 
-        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&allowPublicKeyRetrieval=true";
-        System.out.println("[DB] JDBC URL: " + jdbcUrl);
-        System.out.println("[DB] Query: " + query);
-        System.out.println("[DB] Params: " + criteria.values());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("JDBC URL: " + ConnectionPool.jdbcUrl(host, port, database));
+            LOG.debug("Query: " + query);
+            LOG.debug("Params: " + criteria.values());
+        }
 
-        List<Map<String, Object>> rows = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Connection conn = pool.getConnection(host, port, database, user, password);
              PreparedStatement stmt = conn.prepareStatement(query.toString())) {
             int p = 1;
             for (String value : criteria.values()) {
                 stmt.setString(p++, value);
             }
-            try (ResultSet rs = stmt.executeQuery()) {
-                ResultSetMetaData meta = rs.getMetaData();
-                int colCount = meta.getColumnCount();
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (int i = 1; i <= colCount; i++) {
-                        row.put(meta.getColumnLabel(i), rs.getObject(i));
-                    }
-                    rows.add(row);
-                }
-            }
+            return execute(stmt, tableName);
         }
-        return rows;
     }
 
     public List<Map<String, Object>> fetchByLookup(
@@ -87,36 +113,416 @@ public class databasecolumnUtil {
             query.append(cols.get(i)).append(" = ?");
         }
 
-        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&allowPublicKeyRetrieval=true";
-        System.out.println("[DB] JDBC URL: " + jdbcUrl);
-        System.out.println("[DB] Query: " + query);
-        System.out.println("[DB] Params: " + vals);
-        try (Connection conn = DriverManager.getConnection(jdbcUrl, user, password);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("JDBC URL: " + ConnectionPool.jdbcUrl(host, port, database));
+            LOG.debug("Query: " + query);
+            LOG.debug("Params: " + vals);
+        }
+        try (Connection conn = pool.getConnection(host, port, database, user, password);
              PreparedStatement stmt = conn.prepareStatement(query.toString())) {
             for (int i = 0; i < vals.size(); i++) {
                 stmt.setString(i + 1, vals.get(i));
             }
-            try (ResultSet rs = stmt.executeQuery()) {
-                ResultSetMetaData meta = rs.getMetaData();
-                int colCount = meta.getColumnCount();
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (int i = 1; i <= colCount; i++) {
-                        String colName = meta.getColumnLabel(i);
-                        row.put(colName, rs.getObject(i));
+            rows.addAll(execute(stmt, tableName).toMaps());
+        }
+        return rows;
+    }
+
+    public Map<LinkedHashMap<String, String>, List<Map<String, Object>>> fetchByCriteriaBatch(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            List<LinkedHashMap<String, String>> criteriaList
+    ) throws SQLException {
+        Map<LinkedHashMap<String, String>, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        for (Map.Entry<LinkedHashMap<String, String>, RowSet> e :
+                fetchRowSetsByCriteriaBatch(host, port, database, user, password, tableName, criteriaList).entrySet()) {
+            results.put(e.getKey(), e.getValue().toMaps());
+        }
+        return results;
+    }
+
+    public Map<LinkedHashMap<String, String>, RowSet> fetchRowSetsByCriteriaBatch(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            List<LinkedHashMap<String, String>> criteriaList
+    ) throws SQLException {
+        return fetchBatch(host, port, database, user, password, tableName, "*", criteriaList);
+    }
+
+    /**
+     * Like {@link #fetchRowSetsByCriteriaBatch} but selects only the given columns plus the lookup key
+     * columns, so unvalidated columns (large JSON/BLOB ones in particular) stay in the database. Columns the
+     * table does not have are left out, which leaves them absent from the rows exactly as with SELECT *.
+     */
+    public Map<LinkedHashMap<String, String>, RowSet> fetchRowSetsByCriteriaBatch(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            Collection<String> columns,
+            List<LinkedHashMap<String, String>> criteriaList
+    ) throws SQLException {
+        if (criteriaList == null || criteriaList.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Set<String> wanted = new HashSet<>(columns);
+        for (LinkedHashMap<String, String> criteria : criteriaList) {
+            wanted.addAll(criteria.keySet());
+        }
+        List<String> projection = new ArrayList<>();
+        for (String column : tableColumns(host, port, database, user, password, tableName)) {
+            if (wanted.contains(column)) projection.add(column);
+        }
+        String select = projection.isEmpty() ? "*" : String.join(", ", projection);
+        return fetchBatch(host, port, database, user, password, tableName, select, criteriaList);
+    }
+
+    /** Column labels of the table in definition order, read once per table from a LIMIT 0 query. */
+    public List<String> tableColumns(String host, int port, String database, String user, String password, String tableName) throws SQLException {
+        String key = host + ":" + port + "/" + database + "." + tableName;
+        List<String> cached = tableColumns.get(key);
+        if (cached == null) {
+            loadColumns(host, port, database, user, password, tableName, key);
+            cached = tableColumns.get(key);
+        }
+        return cached;
+    }
+
+    /** Type metadata of the table's columns by label, read once per table from a LIMIT 0 query. */
+    public Map<String, ColumnInfo> columnInfo(String host, int port, String database, String user, String password, String tableName) throws SQLException {
+        String key = host + ":" + port + "/" + database + "." + tableName;
+        Map<String, ColumnInfo> cached = columnInfo.get(key);
+        if (cached == null) {
+            loadColumns(host, port, database, user, password, tableName, key);
+            cached = columnInfo.get(key);
+        }
+        return cached;
+    }
+
+    /**
+     * The named columns with the type and scale the table declares for them, for {@link RowDigest}. Names the
+     * table does not have are returned as unsupported columns.
+     */
+    public List<RowDigest.Column> digestColumns(String host, int port, String database, String user, String password, String tableName,
+                                                List<String> columns) throws SQLException {
+        Map<String, ColumnInfo> info = columnInfo(host, port, database, user, password, tableName);
+        List<RowDigest.Column> out = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            ColumnInfo c = info.get(column);
+            out.add(c != null ? RowDigest.Column.of(column, c.typeName, c.scale) : new RowDigest.Column(column, RowDigest.Kind.UNSUPPORTED, 0));
+        }
+        return out;
+    }
+
+    private void loadColumns(String host, int port, String database, String user, String password, String tableName, String key) throws SQLException {
+        try (Connection conn = pool.getConnection(host, port, database, user, password);
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM " + tableName + " LIMIT 0");
+             ResultSet rs = stmt.executeQuery()) {
+            ResultSetMetaData meta = rs.getMetaData();
+            List<String> columns = new ArrayList<>(meta.getColumnCount());
+            Map<String, ColumnInfo> info = new HashMap<>(meta.getColumnCount() * 2);
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String label = meta.getColumnLabel(i);
+                columns.add(label);
+                info.put(label, new ColumnInfo(label, meta.getColumnTypeName(i), meta.getScale(i), meta.isCaseSensitive(i)));
+            }
+            columnInfo.put(key, Collections.unmodifiableMap(info));
+            tableColumns.put(key, Collections.unmodifiableList(columns));
+        }
+    }
+
+    /**
+     * Server-side {@link RowDigest} of each row matching each criteria, computed over digestColumns, so
+     * only the lookup key and a 32-character digest per row cross the network.
+     */
+    public Map<LinkedHashMap<String, String>, List<String>> fetchDigestsByCriteriaBatch(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            List<RowDigest.Column> digestColumns,
+            List<LinkedHashMap<String, String>> criteriaList
+    ) throws SQLException {
+        Set<String> select = new LinkedHashSet<>();
+        for (LinkedHashMap<String, String> criteria : criteriaList) {
+            select.addAll(criteria.keySet());
+        }
+        select.add(RowDigest.sqlExpression(digestColumns) + " AS row_digest");
+
+        Map<LinkedHashMap<String, String>, List<String>> digests = new LinkedHashMap<>();
+        for (Map.Entry<LinkedHashMap<String, String>, RowSet> e :
+                fetchBatch(host, port, database, user, password, tableName, String.join(", ", select), criteriaList).entrySet()) {
+            RowSet rows = e.getValue();
+            int col = rows.columnIndex("row_digest");
+            List<String> values = new ArrayList<>(rows.size());
+            for (int r = 0; r < rows.size(); r++) {
+                values.add(rows.text(r, col));
+            }
+            digests.put(e.getKey(), values);
+        }
+        return digests;
+    }
+
+    private Map<LinkedHashMap<String, String>, RowSet> fetchBatch(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            String select,
+            List<LinkedHashMap<String, String>> criteriaList
+    ) throws SQLException {
+        Map<LinkedHashMap<String, String>, RowSet> results = new LinkedHashMap<>();
+        if (criteriaList == null || criteriaList.isEmpty()) {
+            return results;
+        }
+
+        // Group by criteria shape so each group shares one (a,b) IN (...) column tuple.
+        Map<List<String>, List<LinkedHashMap<String, String>>> byShape = new LinkedHashMap<>();
+        for (LinkedHashMap<String, String> criteria : criteriaList) {
+            if (criteria == null || criteria.isEmpty()) {
+                throw new IllegalArgumentException("No lookup criteria provided for table " + tableName);
+            }
+            results.putIfAbsent(criteria, null);
+            byShape.computeIfAbsent(new ArrayList<>(criteria.keySet()), k -> new ArrayList<>()).add(criteria);
+        }
+
+        try (Connection conn = pool.getConnection(host, port, database, user, password)) {
+            for (Map.Entry<List<String>, List<LinkedHashMap<String, String>>> shape : byShape.entrySet()) {
+                List<String> columns = shape.getKey();
+                List<LinkedHashMap<String, String>> distinct = new ArrayList<>(new LinkedHashSet<>(shape.getValue()));
+
+                for (int from = 0; from < distinct.size(); from += BATCH_CHUNK_SIZE) {
+                    List<LinkedHashMap<String, String>> chunk = distinct.subList(from, Math.min(distinct.size(), from + BATCH_CHUNK_SIZE));
+                    // Pad to a power of two with NULL keys (which match nothing), so each (table, select, shape)
+                    // needs only a handful of distinct statements and they stay in the pool's statement cache.
+                    int tuples = Math.min(BATCH_CHUNK_SIZE, Integer.highestOneBit(chunk.size() * 2 - 1));
+                    String query = buildInQuery(tableName, select, columns, tuples);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Query: " + query);
+                        LOG.debug("Params: " + chunk.size() + " keys");
+                    }
+
+                    try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                        // The key tuples are bound twice: once for the ordinal column, once for the IN list.
+                        int p = 1;
+                        for (int pass = 0; pass < 2; pass++) {
+                            for (int t = 0; t < tuples; t++) {
+                                for (String column : columns) {
+                                    stmt.setString(p++, t < chunk.size() ? chunk.get(t).get(column) : null);
+                                }
+                            }
+                        }
+                        assign(chunk, execute(stmt, tableName), results);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Splits the rows of one IN query among the chunk's criteria by the ordinals MySQL reported in
+     * {@link #ORDINALS_COLUMN}, so a row belongs to every criteria the server matched it with (under the
+     * column's collation and type coercion) whatever its Java rendering. The ordinal column is dropped.
+     */
+    static void assign(List<LinkedHashMap<String, String>> chunk, RowSet rows, Map<LinkedHashMap<String, String>, RowSet> results) {
+        int ordinalsColumn = rows.columnIndex(ORDINALS_COLUMN);
+        if (ordinalsColumn < 0) {
+            throw new IllegalStateException("Batch result has no " + ORDINALS_COLUMN + " column");
+        }
+        List<List<Integer>> matched = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            matched.add(new ArrayList<>());
+        }
+        for (int r = 0; r < rows.size(); r++) {
+            String ordinals = rows.text(r, ordinalsColumn);
+            if (ordinals == null || ordinals.isEmpty()) continue;
+            for (String ordinal : ordinals.split(",")) {
+                int t = Integer.parseInt(ordinal.trim());
+                if (t < chunk.size()) matched.get(t).add(r);
+            }
+        }
+        RowSet data = rows.withoutColumn(ordinalsColumn);
+        for (int t = 0; t < chunk.size(); t++) {
+            List<Integer> rowsOfTuple = matched.get(t);
+            int[] idx = new int[rowsOfTuple.size()];
+            for (int i = 0; i < idx.length; i++) idx[i] = rowsOfTuple.get(i);
+            results.put(chunk.get(t), data.select(idx));
+        }
+    }
+
+    /**
+     * Reads the whole table, or the rows whose window column falls in [from, to), in pages of at most
+     * pageSize rows ordered by the key columns. Each page is fetched with a keyset predicate on the last
+     * key seen, so pages cost the same regardless of depth and only one page is in memory at a time.
+     * The key columns should be unique and non-null. The scan ends early when pageHandler returns false.
+     * Returns the number of rows scanned.
+     */
+    public long scanByKeyset(
+            String host,
+            int port,
+            String database,
+            String user,
+            String password,
+            String tableName,
+            List<String> keyColumns,
+            TimeWindow window,
+            int pageSize,
+            Predicate<RowSet> pageHandler
+    ) throws SQLException {
+        if (keyColumns == null || keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("No key columns provided for table " + tableName);
+        }
+        String firstQuery = buildKeysetQuery(tableName, keyColumns, window, false);
+        String nextQuery = buildKeysetQuery(tableName, keyColumns, window, true);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("JDBC URL: " + ConnectionPool.jdbcUrl(host, port, database));
+            LOG.debug("Query: " + nextQuery);
+            LOG.debug("Params: pageSize=" + pageSize + " window=" + window);
+        }
+
+        long scanned = 0;
+        try (Connection conn = pool.getConnection(host, port, database, user, password);
+             PreparedStatement first = conn.prepareStatement(firstQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             PreparedStatement next = conn.prepareStatement(nextQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            Object[] lastKey = null;
+            while (true) {
+                PreparedStatement stmt = lastKey == null ? first : next;
+                int p = 1;
+                if (window != null) {
+                    if (window.from != null) stmt.setString(p++, window.from);
+                    if (window.to != null) stmt.setString(p++, window.to);
+                }
+                if (lastKey != null) {
+                    for (int i = 0; i < lastKey.length; i++) {
+                        for (int j = 0; j <= i; j++) {
+                            stmt.setObject(p++, lastKey[j]);
+                        }
                     }
-                    rows.add(row);
                 }
+                stmt.setInt(p, pageSize);
+
+                RowSet page = execute(stmt, tableName);
+                if (page.isEmpty()) {
+                    break;
+                }
+                scanned += page.size();
+                if (!pageHandler.test(page) || page.size() < pageSize) {
+                    break;
+                }
+                lastKey = lastKey(page, tableName, keyColumns);
+            }
+        }
+        return scanned;
+    }
+
+    static Object[] lastKey(RowSet page, String tableName, List<String> keyColumns) {
+        int last = page.size() - 1;
+        Object[] key = new Object[keyColumns.size()];
+        for (int i = 0; i < key.length; i++) {
+            int col = page.columnIndex(keyColumns.get(i));
+            if (col < 0) {
+                throw new IllegalArgumentException("Key column " + keyColumns.get(i) + " not found in table " + tableName);
+            }
+            key[i] = page.get(last, col);
+            if (key[i] == null) {
+                throw new IllegalStateException("Cannot page past a NULL key in " + tableName + "." + keyColumns.get(i));
+            }
+        }
+        return key;
+    }
+
+    /** SELECT ... ORDER BY keys LIMIT ?, with the (k1, k2) > (?, ?) predicate expanded so MySQL can range-scan the key index. */
+    static String buildKeysetQuery(String tableName, List<String> keyColumns, TimeWindow window, boolean afterKey) {
+        List<String> conditions = new ArrayList<>();
+        if (window != null) {
+            if (window.from != null) conditions.add(window.column + " >= ?");
+            if (window.to != null) conditions.add(window.column + " < ?");
+        }
+        if (afterKey) {
+            List<String> disjuncts = new ArrayList<>();
+            for (int i = 0; i < keyColumns.size(); i++) {
+                StringBuilder d = new StringBuilder();
+                for (int j = 0; j < i; j++) {
+                    d.append(keyColumns.get(j)).append(" = ? AND ");
+                }
+                d.append(keyColumns.get(i)).append(" > ?");
+                disjuncts.add(i == 0 ? d.toString() : "(" + d + ")");
             }
+            conditions.add("(" + String.join(" OR ", disjuncts) + ")");
+        }
+        StringBuilder query = new StringBuilder("SELECT * FROM " + tableName);
+        if (!conditions.isEmpty()) {
+            query.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        return query.append(" ORDER BY ").append(String.join(", ", keyColumns)).append(" LIMIT ?").toString();
+    }
+
+    /** Runs the query and reads it into a RowSet, recording fetch latency and row counts per table. */
+    private RowSet execute(PreparedStatement stmt, String tableName) throws SQLException {
+        long start = Metrics.start();
+        RowSet rows;
+        try (ResultSet rs = stmt.executeQuery()) {
+            rows = RowSet.from(rs);
+        }
+        if (Metrics.ENABLED) {
+            Metrics metrics = Metrics.shared();
+            Metrics.recordSince(metrics.histogram("db_fetch_seconds", "table", tableName), start);
+            metrics.counter("db_queries_total", "table", tableName).increment();
+            metrics.counter("db_rows_fetched_total", "table", tableName).add(rows.size());
         }
         return rows;
     }
 
+    /**
+     * SELECT ..., ordinals FROM t WHERE (keys) IN (tuples). The ordinals column lists, comma separated, the
+     * positions of the tuples each row matched, compared by MySQL with the same = as the IN list.
+     */
+    static String buildInQuery(String tableName, String select, List<String> columns, int tuples) {
+        StringBuilder tupleMatch = new StringBuilder();
+        for (String column : columns) {
+            if (tupleMatch.length() > 0) tupleMatch.append(" AND ");
+            tupleMatch.append(column).append(" = ?");
+        }
+        StringBuilder query = new StringBuilder("SELECT " + select + ", CONCAT_WS(','");
+        for (int i = 0; i < tuples; i++) {
+            query.append(", IF(").append(tupleMatch).append(", '").append(i).append("', NULL)");
+        }
+        query.append(") AS ").append(ORDINALS_COLUMN).append(" FROM ").append(tableName).append(" WHERE ");
+        String tuple;
+        if (columns.size() == 1) {
+            query.append(columns.get(0));
+            tuple = "?";
+        } else {
+            query.append("(").append(String.join(", ", columns)).append(")");
+            tuple = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        }
+        query.append(" IN (");
+        for (int i = 0; i < tuples; i++) {
+            if (i > 0) query.append(", ");
+            query.append(tuple);
+        }
+        return query.append(")").toString();
+    }
+
     public List<String> listTables(String host, int port, String database, String user, String password) throws SQLException {
         List<String> tables = new ArrayList<>();
-        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&allowPublicKeyRetrieval=true";
         String query = "SHOW TABLES";
-        try (Connection conn = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Connection conn = pool.getConnection(host, port, database, user, password);
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
@@ -141,27 +547,104 @@ public class databasecolumnUtil {
         String query = "SELECT * FROM " + tableName + " WHERE " + idColumn + " = ? OR " + orderIdColumn + " = ?";
         List<Map<String, Object>> rows = new ArrayList<>();
 
-        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&allowPublicKeyRetrieval=true";
-        System.out.println("[DB] JDBC URL: " + jdbcUrl);
-        System.out.println("[DB] Query: " + query);
-        System.out.println("[DB] Params: id=" + idValue + " orderId=" + orderIdValue);
-        try (Connection conn = DriverManager.getConnection(jdbcUrl, user, password);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("JDBC URL: " + ConnectionPool.jdbcUrl(host, port, database));
+            LOG.debug("Query: " + query);
+            LOG.debug("Params: id=" + idValue + " orderId=" + orderIdValue);
+        }
+        try (Connection conn = pool.getConnection(host, port, database, user, password);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setString(1, idValue);
             stmt.setString(2, orderIdValue);
-            try (ResultSet rs = stmt.executeQuery()) {
-                ResultSetMetaData meta = rs.getMetaData();
-                int colCount = meta.getColumnCount();
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (int i = 1; i <= colCount; i++) {
-                        String colName = meta.getColumnLabel(i);
-                        row.put(colName, rs.getObject(i));
-                    }
-                    rows.add(row);
+            rows.addAll(execute(stmt, tableName).toMaps());
+        }
+        return rows;
+    }
+
+    /** Half-open [from, to) range on one column; either bound may be null for an open end. */
+    /** A column's type as the result set metadata reports it; caseSensitive is false for _ci collations. */
+    public static class ColumnInfo {
+        private static final Set<String> NUMERIC_TYPES = Set.of(
+                "TINYINT", "SMALLINT", "MEDIUMINT", "INT", "INTEGER", "BIGINT", "DECIMAL", "FLOAT", "DOUBLE", "BIT", "BOOLEAN");
+        private static final ThreadLocal<Collator> CASE_INSENSITIVE = ThreadLocal.withInitial(() -> {
+            Collator collator = Collator.getInstance(Locale.ROOT);
+            collator.setStrength(Collator.PRIMARY);
+            return collator;
+        });
+
+        public final String name;
+        public final String typeName;
+        public final int scale;
+        public final boolean caseSensitive;
+
+        public ColumnInfo(String name, String typeName, int scale, boolean caseSensitive) {
+            this.name = name;
+            this.typeName = typeName == null ? "" : typeName.toUpperCase(Locale.ROOT);
+            this.scale = scale;
+            this.caseSensitive = caseSensitive;
+        }
+
+        /**
+         * The value reduced to what the server compares, so equal results mean the server treats the values
+         * as equal: numbers without trailing zeros (booleans as 1/0), datetimes in one form, and text of
+         * case-insensitive columns folded by case and accents. Trailing spaces are expected to be trimmed
+         * already. An approximation of MySQL's collations, close enough to join keys on.
+         */
+        public String comparable(String value) {
+            if (value == null) return null;
+            String type = typeName.endsWith(" UNSIGNED") ? typeName.substring(0, typeName.length() - " UNSIGNED".length()) : typeName;
+            if (NUMERIC_TYPES.contains(type)) {
+                if ("true".equalsIgnoreCase(value)) return "1";
+                if ("false".equalsIgnoreCase(value)) return "0";
+                try {
+                    return new BigDecimal(value.trim()).stripTrailingZeros().toPlainString();
+                } catch (NumberFormatException ex) {
+                    return value;
                 }
             }
+            if (type.equals("DATETIME") || type.equals("TIMESTAMP")) {
+                LocalDateTime dt = RowDigest.dateTime(value);
+                return dt == null ? value : dt.toString();
+            }
+            if (!caseSensitive && !type.contains("BINARY") && !type.contains("BLOB")) {
+                return HexFormat.of().formatHex(CASE_INSENSITIVE.get().getCollationKey(value).toByteArray());
+            }
+            return value;
+        }
+    }
+
+    public static class TimeWindow {
+        public final String column;
+        public final String from;
+        public final String to;
+
+        public TimeWindow(String column, String from, String to) {
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** From reconcile.window.column / .from / .to; null when no column is configured. */
+        public static TimeWindow fromSystemProperties() {
+            String column = System.getProperty("reconcile.window.column", "").trim();
+            if (column.isEmpty()) return null;
+            return new TimeWindow(column, blankToNull(System.getProperty("reconcile.window.from")), blankToNull(System.getProperty("reconcile.window.to")));
+        }
+
+        /** True when the value lies in the window; values are compared as "yyyy-MM-dd HH:mm:ss" text. */
+        public boolean contains(String value) {
+            if (value == null) return false;
+            String v = value.trim().replace('T', ' ');
+            return (from == null || v.compareTo(from.replace('T', ' ')) >= 0) && (to == null || v.compareTo(to.replace('T', ' ')) < 0);
+        }
+
+        private static String blankToNull(String v) {
+            return v == null || v.trim().isEmpty() ? null : v.trim();
+        }
+
+        @Override
+        public String toString() {
+            return column + " in [" + (from == null ? "" : from) + ", " + (to == null ? "" : to) + ")";
         }
-        return rows;
     }
 }
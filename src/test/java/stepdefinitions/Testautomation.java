@@ -6,21 +6,46 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import utilities.ConvergenceValidator;
+import utilities.CsvResultSink;
+import utilities.EventPublisher;
+import utilities.EventTrigger;
 import utilities.JsonCompare;
+import utilities.ExpectedIndex;
+import utilities.FailureBudget;
 import utilities.JsonCompare.ValidationReport;
+import utilities.JsonlResultSink;
+import utilities.LoadGenerator;
+import utilities.Log;
+import utilities.Metrics;
+import utilities.OrderedResultSink;
+import utilities.PayloadReader;
+import utilities.PayloadReader.PayloadRecord;
+import utilities.ResultSink;
+import utilities.ResultStore;
+import utilities.RowDigest;
+import utilities.RowSampler;
+import utilities.RowSet;
+import utilities.SchemaRegistry;
+import utilities.TableReconciler;
+import utilities.ValidationEngine;
 import utilities.databasecolumnUtil;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.net.URI;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
 
 public class Testautomation {
     private final ObjectMapper mapper = new ObjectMapper();
     private final databasecolumnUtil dbUtil = new databasecolumnUtil();
     private final JsonCompare jsonCompare = new JsonCompare();
+    private final PayloadReader payloadReader = new PayloadReader(mapper);
 
+    private static final Log LOG = Log.get("Testautomation");
+    private static final Log CONSOLE = Log.console();
     private static final String SEP = "================================================================";
 
     private String host;
@@ -29,14 +54,14 @@ public class Testautomation {
     private String user;
     private String password;
     private String payloadPath;
+    private Path passReportFile;
+    private Path resultsFile;
     private String expectedPath;
     private String schemaDir;
-    private JsonNode payloadArray;
+    private LoadGenerator.LoadReport loadReport;
 
     private final List<ValidationReport> reports = new ArrayList<>();
-    private final Map<String, JsonCompare.ColumnRule> columnRuleCache = new HashMap<>();
     private final Map<String, LookupConfig> lookupConfigCache = new HashMap<>();
-    private final Map<String, TableColumnPolicy> tablePolicyCache = new HashMap<>();
 
     @Given("mysql host {string} port {int} database {string} user {string} password {string} and payload file {string} and expected file {string} and schema dir {string}")
     public void setup(String host, int port, String db, String user, String password, String payload, String expected, String schemaDir) throws Exception {
@@ -48,18 +73,343 @@ public class Testautomation {
         this.payloadPath = payload;
         this.expectedPath = expected;
         this.schemaDir = schemaDir;
-        this.payloadArray = mapper.readTree(Path.of(payload).toFile());
+    }
+
+    @When("events are published to {string} and the database converges within {int} seconds")
+    public void publishAndAwaitConvergence(String connectionString, int deadlineSeconds) throws Exception {
+        ValidationPlan plan = planChecks();
+        Map<String, List<ConvergenceValidator.Expectation>> expectations = new LinkedHashMap<>();
+        for (RowCheck check : plan.checks) {
+            if (check.criteria.isEmpty()) continue;
+            expectations.computeIfAbsent(check.payloadRecord.eventId, k -> new ArrayList<>())
+                    .add(new ConvergenceValidator.Expectation(check.table.tableName, check.criteria));
+        }
+
+        ConvergenceValidator validator = new ConvergenceValidator(new EventTrigger(), dbUtil, host, port, database, user, password);
+        ConvergenceValidator.ConvergenceReport result = validator.publishAndAwait(connectionString, Path.of(payloadPath), expectations, Duration.ofSeconds(deadlineSeconds));
+        log("CONVERGENCE: " + result);
+        Log.flush();
+        if (!result.converged()) {
+            throw new AssertionError("Database did not converge within " + deadlineSeconds + "s: timedOut=" + result.timedOut + " publishFailures=" + result.publishFailures);
+        }
+    }
+
+    @When("events are published to {string} at {int} events per second for {int} seconds")
+    public void publishAtConstantRate(String endpoint, int eventsPerSecond, int seconds) throws Exception {
+        runLoad(endpoint, LoadGenerator.Config.constant(eventsPerSecond, Duration.ofSeconds(seconds)));
+    }
+
+    @When("events are published to {string} ramping from {int} to {int} events per second over {int} seconds for {int} seconds")
+    public void publishAtRampedRate(String endpoint, int fromRate, int toRate, int rampSeconds, int seconds) throws Exception {
+        runLoad(endpoint, LoadGenerator.Config.ramp(fromRate, toRate, Duration.ofSeconds(rampSeconds), Duration.ofSeconds(seconds)));
+    }
+
+    @Then("no published events should have failed")
+    public void noPublishedEventsFailed() {
+        if (loadReport == null) {
+            throw new IllegalStateException("No load run in this scenario");
+        }
+        if (loadReport.failed.get() > 0) {
+            throw new AssertionError(loadReport.failed.get() + " of " + loadReport.sent.get() + " published event(s) failed");
+        }
+    }
+
+    private void runLoad(String endpoint, LoadGenerator.Config config) throws Exception {
+        log("LOAD: publishing " + payloadPath + " to " + endpoint + " at " + config.startRate + "->" + config.endRate
+                + "/s for " + config.duration.toSeconds() + "s");
+        loadReport = new LoadGenerator(EventPublisher.shared()).run(URI.create(endpoint), Path.of(payloadPath), config);
+        log("LOAD: " + loadReport);
+        Log.flush();
     }
 
     @Then("database values should match expected data")
     public void validateDatabase() throws Exception {
+        try {
+            runValidation();
+        } finally {
+            Log.flush();
+        }
+    }
+
+    @Then("table {string} should reconcile with expected data")
+    public void reconcileTable(String tableName) throws Exception {
+        try {
+            runReconciliation(tableName);
+        } finally {
+            Log.flush();
+        }
+    }
+
+    private void runReconciliation(String tableName) throws Exception {
+        Path expectedFile = expectedDir().resolve(tableName + "_expected_data.json");
+        LookupConfig lookup = resolveLookup(tableName, null);
+        ExpectedIndex index = ExpectedIndex.build(mapper, expectedFile, Arrays.asList("id", "event_id"), Arrays.asList("orderid", "order_id"), row -> true);
+
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.tableName = tableName;
+        schema.keyColumns = new ArrayList<>(lookup.columns);
+        applySchemaTablePolicy(tableName, schema);
+        List<JsonNode> expectedRows = new ArrayList<>(index.size());
+        for (JsonNode row : index.rows()) {
+            JsonNode expectedRow = applyTableIgnorePolicy(tableName, row);
+            if (expectedRow == null || !expectedRow.isObject() || expectedRow.size() == 0) {
+                continue;
+            }
+            enrichSchemaWithColumnRules(tableName, schema, expectedRow);
+            expectedRows.add(expectedRow);
+        }
+
+        FailureBudget failureBudget = FailureBudget.fromSystemProperties();
+        jsonCompare.setFailureBudget(failureBudget);
+        if (failureBudget.isLimited()) {
+            log("MODE: stopping after " + failureBudget.maxFailures() + " failed column(s) or row(s)");
+        }
+        TableReconciler reconciler = new TableReconciler(dbUtil, jsonCompare, host, port, database, user, password);
+        TableReconciler.Result result;
+        try (OrderedResultSink resultSink = openResultSinks()) {
+            result = reconciler.reconcile(tableName, lookup.columns, expectedRows, schema, databasecolumnUtil.TimeWindow.fromSystemProperties(), resultSink);
+        }
+        log("RECONCILE: " + result);
+        if (!result.clean()) {
+            throw new AssertionError("Reconciliation failed for table " + tableName + ": mismatched=" + result.mismatchedRows
+                    + " missing=" + result.missingRows + " extra=" + result.extraRows);
+        }
+    }
+
+    private void runValidation() throws Exception {
         printRunHeader();
+        FailureBudget failureBudget = FailureBudget.fromSystemProperties();
+        jsonCompare.setFailureBudget(failureBudget);
+        if (failureBudget.isLimited()) {
+            log("MODE: stopping after " + failureBudget.maxFailures() + " failed column(s) or row(s)");
+        }
+
+        ValidationPlan plan = planChecks();
+        List<RowCheck> checks = plan.checks;
+        ResultStore store = ResultStore.fromSystemProperties(schemas().contentHash());
+        if (store.isEnabled()) {
+            log("MODE: incremental, " + store.size() + " stored result(s) in " + store.file());
+        }
+        Map<String, List<LinkedHashMap<String, String>>> criteriaByTable = plan.criteriaByTable;
+
+        Iterator<ValidationReport> compared;
+        try (ValidationEngine engine = new ValidationEngine();
+             OrderedResultSink resultSink = openResultSinks()) {
+            Map<RowCheck, List<RowDigest.Column>> digestMatched = Boolean.getBoolean("validation.checksumFirst")
+                    ? matchDigests(engine, checks) : Collections.emptyMap();
+            if (!digestMatched.isEmpty()) {
+                criteriaByTable = new LinkedHashMap<>();
+                for (RowCheck check : checks) {
+                    if (check.expectedRow != null && !check.criteria.isEmpty() && !digestMatched.containsKey(check)) {
+                        criteriaByTable.computeIfAbsent(check.table.tableName, k -> new ArrayList<>()).add(check.criteria);
+                    }
+                }
+            }
+
+            // Project each table onto the columns its expected rows validate; ignored columns are already gone from them.
+            Map<String, Set<String>> projections = new HashMap<>();
+            for (RowCheck check : checks) {
+                if (check.expectedRow != null && !check.criteria.isEmpty()) {
+                    check.expectedRow.fieldNames().forEachRemaining(
+                            projections.computeIfAbsent(check.table.tableName, k -> new HashSet<>())::add);
+                }
+            }
+
+            List<ValidationEngine.Unit<Map<LinkedHashMap<String, String>, RowSet>>> fetches = new ArrayList<>();
+            for (Map.Entry<String, List<LinkedHashMap<String, String>>> e : criteriaByTable.entrySet()) {
+                String tableName = e.getKey();
+                List<LinkedHashMap<String, String>> criteriaList = e.getValue();
+                Set<String> projection = projections.getOrDefault(tableName, Collections.emptySet());
+                fetches.add(ValidationEngine.unit(tableName, () -> {
+                    try {
+                        log("DB: batch fetching table=" + tableName + " keys=" + criteriaList.size() + " columns=" + projection.size());
+                        return dbUtil.fetchRowSetsByCriteriaBatch(host, port, database, user, password, tableName, projection, criteriaList);
+                    } catch (SQLException ex) {
+                        LOG.error("DB ERROR: " + ex.getMessage());
+                        throw new RuntimeException("DB fetch failed for table " + tableName, ex);
+                    }
+                }));
+            }
+            List<Map<LinkedHashMap<String, String>, RowSet>> fetched = engine.runAll(fetches);
+            Map<String, Map<LinkedHashMap<String, String>, RowSet>> actualByTable = new HashMap<>();
+            int fetchIdx = 0;
+            for (String tableName : criteriaByTable.keySet()) {
+                actualByTable.put(tableName, fetched.get(fetchIdx++));
+            }
+
+            List<ValidationEngine.Unit<ValidationReport>> compares = new ArrayList<>();
+            for (RowCheck check : checks) {
+                if (check.expectedRow == null || check.criteria.isEmpty()) {
+                    continue;
+                }
+                RowSet actualRows = actualByTable
+                        .getOrDefault(check.table.tableName, Collections.emptyMap())
+                        .getOrDefault(check.criteria, RowSet.empty());
+                enrichSchemaWithColumnRules(check.table.tableName, check.table.schema, check.expectedRow);
+                ArrayNode expectedArray = mapper.createArrayNode().add(check.expectedRow);
+                int sequence = compares.size();
+                List<RowDigest.Column> digestColumns = digestMatched.get(check);
+                if (digestColumns != null) {
+                    // The DB row renders as the expected values, so compare against those instead of fetching it.
+                    List<Map<String, Object>> digestRow = Collections.singletonList(RowDigest.values(check.expectedRow, digestColumns));
+                    compares.add(ValidationEngine.unit(check.table.tableName, () -> {
+                        try {
+                            ValidationReport report = jsonCompare.validateTable("phpmyadmin", check.payloadRecord.eventId, check.table.tableName, digestRow, new int[1], expectedArray, check.table.schema);
+                            writeResults(resultSink, sequence, report);
+                            return report;
+                        } catch (RuntimeException | Error ex) {
+                            skipResults(resultSink, sequence);
+                            throw ex;
+                        }
+                    }));
+                    continue;
+                }
+                compares.add(ValidationEngine.unit(check.table.tableName, () -> {
+                    try {
+                        ResultStore.Fingerprint fingerprint = store.isEnabled()
+                                ? store.fingerprint(check.table.tableName, check.criteria, check.expectedRow, actualRows) : null;
+                        ValidationReport report = fingerprint == null ? null
+                                : store.reuse(fingerprint, "phpmyadmin", check.payloadRecord.eventId, check.table.tableName);
+                        if (report == null) {
+                            // The server matched every row of the group to this check's key, so all pair with its one expected row.
+                            report = jsonCompare.validateTable("phpmyadmin", check.payloadRecord.eventId, check.table.tableName, actualRows, new int[actualRows.size()], expectedArray, check.table.schema);
+                            if (fingerprint != null) store.record(fingerprint, report);
+                        }
+                        writeResults(resultSink, sequence, report);
+                        return report;
+                    } catch (RuntimeException | Error ex) {
+                        skipResults(resultSink, sequence);
+                        throw ex;
+                    }
+                }));
+            }
+            List<ValidationReport> compareResults = engine.runAll(compares, failureBudget::exhausted);
+            for (int i = 0; i < compareResults.size(); i++) {
+                if (compareResults.get(i) == null) {
+                    resultSink.skip(i);
+                }
+            }
+            compared = compareResults.iterator();
+        }
+        if (store.isEnabled()) {
+            log("STORE: reused=" + store.reusedCount() + " compared=" + store.comparedCount());
+            try {
+                store.save();
+            } catch (Exception ex) {
+                LOG.warn("STORE: failed to save " + store.file() + " -> " + ex.getMessage());
+            }
+        }
+
+        PayloadRecord currentRecord = null;
+        ExpectedTable currentTable = null;
+        for (RowCheck check : checks) {
+            if (check.payloadRecord != currentRecord) {
+                currentRecord = check.payloadRecord;
+                currentTable = null;
+                printScenarioHeader(currentRecord.eventId, currentRecord.orderId);
+            }
+            if (check.expectedRow == null) {
+                log("No expected rows for table=" + check.table.tableName + " (skipped)");
+                continue;
+            }
+            if (check.table != currentTable) {
+                currentTable = check.table;
+                printTableHeader(currentTable.tableName, check.expectedRowCount);
+            }
+
+            if (check.criteria.isEmpty()) {
+                log("LOOKUP: no lookup values resolved for table=" + check.table.tableName + " row=" + check.expectedRow + " (skipped)");
+                continue;
+            }
+
+            ValidationReport report = compared.next();
+            if (report == null) {
+                log("COMPARE: not run for table=" + check.table.tableName + " (failure limit reached)");
+                continue;
+            }
+            reports.add(report);
+            printScenarioTableSummary(report);
+        }
+
+        if (plan.matchedExpectedRows == 0) {
+            throw new AssertionError("No expected rows matched payload IDs from " + expectedPath + ". Check payload/expected alignment.");
+        }
 
-        if (!payloadArray.isArray()) {
-            throw new IllegalArgumentException("Payload file must be a JSON array");
+        for (ValidationReport r : reports) {
+            if ("FAIL".equals(r.status)) {
+                printRunSummary();
+                throw new AssertionError("Validation failed for table " + r.tableName);
+            }
         }
 
-        List<PayloadRecord> payloadRecords = extractPayloadRecords(payloadArray);
+        printRunSummary();
+    }
+
+    /**
+     * Checksum-first mode: asks MySQL for a {@link RowDigest} of each checked row over its expected columns
+     * and returns the checks whose single DB row has the expected digest, with the digested columns. Those
+     * rows are never fetched; a failed digest query, or a table with a column type {@link RowDigest} cannot
+     * render, just leaves its rows to the full fetch.
+     */
+    private Map<RowCheck, List<RowDigest.Column>> matchDigests(ValidationEngine engine, List<RowCheck> checks) throws Exception {
+        Map<String, Map<List<String>, List<RowCheck>>> byTableAndColumns = new LinkedHashMap<>();
+        int candidates = 0;
+        for (RowCheck check : checks) {
+            if (check.expectedRow == null || check.criteria.isEmpty()) {
+                continue;
+            }
+            List<String> columns = new ArrayList<>();
+            check.expectedRow.fieldNames().forEachRemaining(columns::add);
+            byTableAndColumns.computeIfAbsent(check.table.tableName, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(columns, k -> new ArrayList<>()).add(check);
+            candidates++;
+        }
+
+        List<ValidationEngine.Unit<Map<RowCheck, List<RowDigest.Column>>>> units = new ArrayList<>();
+        for (Map.Entry<String, Map<List<String>, List<RowCheck>>> table : byTableAndColumns.entrySet()) {
+            String tableName = table.getKey();
+            for (Map.Entry<List<String>, List<RowCheck>> shape : table.getValue().entrySet()) {
+                List<String> columns = shape.getKey();
+                List<RowCheck> group = shape.getValue();
+                units.add(ValidationEngine.unit(tableName, () -> {
+                    List<LinkedHashMap<String, String>> criteriaList = new ArrayList<>(group.size());
+                    for (RowCheck check : group) criteriaList.add(check.criteria);
+                    List<RowDigest.Column> digestColumns;
+                    Map<LinkedHashMap<String, String>, List<String>> digests;
+                    try {
+                        List<String> tableColumns = dbUtil.tableColumns(host, port, database, user, password, tableName);
+                        if (!RowDigest.supported(dbUtil.digestColumns(host, port, database, user, password, tableName, tableColumns))) {
+                            LOG.info("CHECKSUM: table=" + tableName + " has column types the digest cannot render, fetching full rows");
+                            return Collections.emptyMap();
+                        }
+                        digestColumns = dbUtil.digestColumns(host, port, database, user, password, tableName, columns);
+                        digests = dbUtil.fetchDigestsByCriteriaBatch(host, port, database, user, password, tableName, digestColumns, criteriaList);
+                    } catch (SQLException ex) {
+                        LOG.warn("CHECKSUM: digest query failed for table=" + tableName + ", fetching full rows -> " + ex.getMessage());
+                        return Collections.emptyMap();
+                    }
+                    Map<RowCheck, List<RowDigest.Column>> matched = new HashMap<>();
+                    for (RowCheck check : group) {
+                        List<String> rowDigests = digests.getOrDefault(check.criteria, Collections.emptyList());
+                        if (rowDigests.size() == 1 && rowDigests.get(0).equals(RowDigest.of(check.expectedRow, digestColumns))) {
+                            matched.put(check, digestColumns);
+                        }
+                    }
+                    return matched;
+                }));
+            }
+        }
+
+        Map<RowCheck, List<RowDigest.Column>> matched = new HashMap<>();
+        for (Map<RowCheck, List<RowDigest.Column>> m : engine.runAll(units)) {
+            matched.putAll(m);
+        }
+        log("CHECKSUM: " + matched.size() + " of " + candidates + " row(s) matched by digest; fetching " + (candidates - matched.size()) + " full row(s)");
+        return matched;
+    }
+
+    private ValidationPlan planChecks() throws Exception {
+        List<PayloadRecord> payloadRecords = payloadReader.readAll(Path.of(payloadPath));
         if (payloadRecords.isEmpty()) {
             throw new IllegalArgumentException("No payload records with id/order fields found in " + payloadPath);
         }
@@ -76,77 +426,48 @@ public class Testautomation {
             throw new IllegalStateException("No matching expected rows found in " + expectedPath + " for payload event/order ids.");
         }
 
+        RowSampler sampler = RowSampler.fromSystemProperties();
         int matchedExpectedRows = 0;
+        int sampledRows = 0;
+        List<RowCheck> checks = new ArrayList<>();
+        Map<String, List<LinkedHashMap<String, String>>> criteriaByTable = new LinkedHashMap<>();
         for (PayloadRecord payloadRecord : payloadRecords) {
-            String eventId = payloadRecord.eventId;
-            String orderId = payloadRecord.orderId;
-            printScenarioHeader(eventId, orderId);
-
             for (ExpectedTable table : tables) {
                 List<JsonNode> expectedRows = table.getMatchedRows(payloadRecord);
                 if (expectedRows.isEmpty()) {
-                    log("No expected rows for table=" + table.tableName + " (skipped)");
+                    checks.add(new RowCheck(payloadRecord, table, 0, null, new LinkedHashMap<>()));
                     continue;
                 }
-
-                printTableHeader(table.tableName, expectedRows.size());
                 applySchemaTablePolicy(table.tableName, table.schema);
 
-                for (JsonNode baseExpectedRow : expectedRows) {
-                    JsonNode expectedRow = applyTableIgnorePolicy(table.tableName, baseExpectedRow);
+                BitSet sample = sampler.select(table.tableName, payloadRecord.eventId + "|" + payloadRecord.orderId, expectedRows.size());
+                for (int rowIdx = 0; rowIdx < expectedRows.size(); rowIdx++) {
+                    JsonNode expectedRow = applyTableIgnorePolicy(table.tableName, expectedRows.get(rowIdx));
                     if (expectedRow == null || !expectedRow.isObject() || expectedRow.size() == 0) {
                         continue;
                     }
                     matchedExpectedRows++;
-
-                    LinkedHashMap<String, String> criteria = buildLookupCriteria(table.lookupConfig, payloadRecord, expectedRow);
-                    if (criteria.isEmpty()) {
-                        log("LOOKUP: no lookup values resolved for table=" + table.tableName + " row=" + expectedRow + " (skipped)");
+                    if (!sample.get(rowIdx)) {
                         continue;
                     }
+                    sampledRows++;
 
-                    List<Map<String, Object>> actualRows;
-                    try {
-                        log("DB: fetching table=" + table.tableName + " by " + criteria);
-                        actualRows = dbUtil.fetchByCriteria(
-                                host,
-                                port,
-                                database,
-                                user,
-                                password,
-                                table.tableName,
-                                criteria
-                        );
-                    } catch (SQLException ex) {
-                        log("DB ERROR: " + ex.getMessage());
-                        throw new RuntimeException("DB fetch failed for table " + table.tableName, ex);
+                    LinkedHashMap<String, String> criteria = buildLookupCriteria(table.lookupConfig, payloadRecord, expectedRow);
+                    checks.add(new RowCheck(payloadRecord, table, expectedRows.size(), expectedRow, criteria));
+                    if (!criteria.isEmpty()) {
+                        criteriaByTable.computeIfAbsent(table.tableName, k -> new ArrayList<>()).add(criteria);
                     }
-
-                    enrichSchemaWithColumnRules(table.tableName, table.schema, expectedRow);
-                    ArrayNode expectedArray = mapper.createArrayNode().add(expectedRow);
-                    ValidationReport report = jsonCompare.validateTable("phpmyadmin", eventId, table.tableName, actualRows, expectedArray, table.schema);
-                    reports.add(report);
-                    printScenarioTableSummary(report);
                 }
             }
         }
-
-        if (matchedExpectedRows == 0) {
-            throw new AssertionError("No expected rows matched payload IDs from " + expectedPath + ". Check payload/expected alignment.");
-        }
-
-        for (ValidationReport r : reports) {
-            if ("FAIL".equals(r.status)) {
-                printRunSummary();
-                throw new AssertionError("Validation failed for table " + r.tableName);
-            }
+        if (sampler.isSampling()) {
+            log("SAMPLING: " + sampler + " kept " + sampledRows + " of " + matchedExpectedRows + " expected rows");
         }
-
-        printRunSummary();
+        return new ValidationPlan(checks, criteriaByTable, matchedExpectedRows);
     }
 
     private void log(String msg) {
-        System.out.println("[Testautomation] " + msg);
+        LOG.info(msg);
     }
 
     private void enrichSchemaWithColumnRules(String tableName, JsonCompare.Schema schema, JsonNode expectedRow) throws Exception {
@@ -161,14 +482,8 @@ public class Testautomation {
                 continue;
             }
 
-            String fileName = tableName + "_" + column + ".schema.json";
-            Path path = Path.of(schemaDir, fileName);
-            if (java.nio.file.Files.exists(path)) {
-                JsonCompare.ColumnRule rule = columnRuleCache.get(path.toString());
-                if (rule == null) {
-                    rule = jsonCompare.loadColumnRule(path);
-                    columnRuleCache.put(path.toString(), rule);
-                }
+            JsonCompare.ColumnRule rule = schemas().columnRule(tableName, column);
+            if (rule != null) {
                 schema.rules.put(column, rule);
             }
         }
@@ -176,16 +491,7 @@ public class Testautomation {
 
     private List<ExpectedTable> loadExpectedTables(Set<String> payloadEventIds, Set<String> payloadOrderIds) throws Exception {
         List<ExpectedTable> tables = new ArrayList<>();
-        Path configuredPath = Path.of(expectedPath);
-        if (!java.nio.file.Files.exists(configuredPath)) {
-            throw new IllegalArgumentException("Expected path not found: " + expectedPath);
-        }
-
-        Path expectedDir = java.nio.file.Files.isDirectory(configuredPath) ? configuredPath : configuredPath.getParent();
-        if (expectedDir == null || !java.nio.file.Files.exists(expectedDir)) {
-            throw new IllegalArgumentException("Expected directory not found for: " + expectedPath);
-        }
-
+        Path expectedDir = expectedDir();
         try (java.util.stream.Stream<Path> stream = java.nio.file.Files.list(expectedDir)) {
             List<Path> expectedFiles = stream
                     .filter(p -> p.getFileName().toString().endsWith("_expected_data.json"))
@@ -200,29 +506,38 @@ public class Testautomation {
                 String file = expectedFile.getFileName().toString();
                 String tableName = file.substring(0, file.indexOf("_expected_data.json"));
 
-                JsonNode rows = jsonCompare.loadExpected(expectedFile);
-                if (!rows.isArray()) {
-                    throw new IllegalArgumentException("Expected file must contain a JSON array: " + expectedFile);
-                }
-
                 LookupConfig lookup = resolveLookup(tableName, null);
-                List<JsonNode> matchedRows = new ArrayList<>();
-                for (JsonNode row : rows) {
-                    JsonNode normalizedRow = normalizeExpectedRow(row);
-                    if (rowMatchesPayloadSets(normalizedRow, payloadEventIds, payloadOrderIds, lookup)) {
-                        matchedRows.add(normalizedRow);
-                    }
-                }
+                ExpectedIndex index = ExpectedIndex.build(
+                        mapper,
+                        expectedFile,
+                        Arrays.asList("id", "event_id"),
+                        Arrays.asList("orderid", "order_id"),
+                        row -> rowMatchesPayloadSets(row, payloadEventIds, payloadOrderIds, lookup)
+                );
 
                 JsonCompare.Schema schema = new JsonCompare.Schema();
                 schema.tableName = tableName;
-                tables.add(new ExpectedTable(tableName, matchedRows, schema, lookup));
-                log("EXPECTED: loaded " + file + " rows=" + rows.size() + " matched=" + matchedRows.size() + " lookupColumns=" + lookup.columns);
+                schema.keyColumns = new ArrayList<>(lookup.columns);
+                tables.add(new ExpectedTable(tableName, index, schema, lookup));
+                log("EXPECTED: loaded " + file + " rows=" + index.totalRows() + " matched=" + index.size() + " lookupColumns=" + lookup.columns);
             }
         }
         return tables;
     }
 
+    private Path expectedDir() {
+        Path configuredPath = Path.of(expectedPath);
+        if (!java.nio.file.Files.exists(configuredPath)) {
+            throw new IllegalArgumentException("Expected path not found: " + expectedPath);
+        }
+
+        Path expectedDir = java.nio.file.Files.isDirectory(configuredPath) ? configuredPath : configuredPath.getParent();
+        if (expectedDir == null || !java.nio.file.Files.exists(expectedDir)) {
+            throw new IllegalArgumentException("Expected directory not found for: " + expectedPath);
+        }
+        return expectedDir;
+    }
+
     private boolean rowMatchesPayloadSets(JsonNode row, Set<String> payloadEventIds, Set<String> payloadOrderIds, LookupConfig lookup) {
         if (row == null || !row.isObject()) return false;
 
@@ -262,20 +577,10 @@ public class Testautomation {
         }
 
         LookupConfig cfg = new LookupConfig();
-
-        Path perTableLookupFile = Path.of(schemaDir, tableName + "_lookup.json");
-        if (java.nio.file.Files.exists(perTableLookupFile)) {
-            JsonNode node = mapper.readTree(perTableLookupFile.toFile());
-            applyLookupNode(cfg, node);
-        }
-
-        Path globalLookupFile = Path.of(schemaDir, "lookup.json");
-        if (java.nio.file.Files.exists(globalLookupFile)) {
-            JsonNode root = mapper.readTree(globalLookupFile.toFile());
-            if (root.isObject() && root.has(tableName)) {
-                applyLookupNode(cfg, root.get(tableName));
-            }
-        }
+        SchemaRegistry.LookupSpec spec = schemas().lookup(tableName);
+        cfg.columns.addAll(spec.columns);
+        cfg.idColumn = spec.idColumn;
+        cfg.orderIdColumn = spec.orderIdColumn;
 
         if (cfg.columns.isEmpty() && expectedRow != null) {
             if (expectedRow.has("id") || expectedRow.has("event_id") || expectedRow.has("event-id")) cfg.columns.add("id");
@@ -298,46 +603,6 @@ public class Testautomation {
         return cfg;
     }
 
-    private void applyLookupNode(LookupConfig cfg, JsonNode node) {
-        if (node == null || node.isNull()) return;
-
-        if (node.isTextual()) {
-            cfg.columns.add(node.asText().trim());
-            return;
-        }
-
-        if (node.isArray()) {
-            for (JsonNode n : node) {
-                if (n.isTextual()) cfg.columns.add(n.asText().trim());
-            }
-            return;
-        }
-
-        if (!node.isObject()) {
-            return;
-        }
-
-        if (node.has("idColumn")) {
-            String v = node.get("idColumn").asText().trim();
-            if (!v.isEmpty()) {
-                cfg.idColumn = v;
-                cfg.columns.add(v);
-            }
-        }
-        if (node.has("orderIdColumn")) {
-            String v = node.get("orderIdColumn").asText().trim();
-            if (!v.isEmpty()) {
-                cfg.orderIdColumn = v;
-                cfg.columns.add(v);
-            }
-        }
-        if (node.has("columns") && node.get("columns").isArray()) {
-            for (JsonNode c : node.get("columns")) {
-                if (c.isTextual()) cfg.columns.add(c.asText().trim());
-            }
-        }
-    }
-
     private LinkedHashMap<String, String> buildLookupCriteria(LookupConfig lookup, PayloadRecord payload, JsonNode expectedRow) {
         LinkedHashMap<String, String> criteria = new LinkedHashMap<>();
         for (String column : lookup.columns) {
@@ -393,7 +658,7 @@ public class Testautomation {
     }
 
     private void applySchemaTablePolicy(String tableName, JsonCompare.Schema schema) {
-        TableColumnPolicy policy = getTablePolicy(tableName);
+        SchemaRegistry.TablePolicy policy = getTablePolicy(tableName);
         for (String f : policy.required) {
             if (!schema.requiredFields.contains(f)) schema.requiredFields.add(f);
         }
@@ -405,7 +670,7 @@ public class Testautomation {
     private JsonNode applyTableIgnorePolicy(String tableName, JsonNode expectedRow) {
         if (expectedRow == null || !expectedRow.isObject()) return expectedRow;
 
-        TableColumnPolicy policy = getTablePolicy(tableName);
+        SchemaRegistry.TablePolicy policy = getTablePolicy(tableName);
         if (policy.ignore.isEmpty()) {
             return expectedRow;
         }
@@ -419,49 +684,12 @@ public class Testautomation {
         return out;
     }
 
-    private TableColumnPolicy getTablePolicy(String tableName) {
-        if (tablePolicyCache.containsKey(tableName)) {
-            return tablePolicyCache.get(tableName);
-        }
-
-        TableColumnPolicy policy = new TableColumnPolicy();
-        Path rulesPath = Path.of(schemaDir, "table_columns.json");
-        if (java.nio.file.Files.exists(rulesPath)) {
-            try {
-                JsonNode root = mapper.readTree(rulesPath.toFile());
-                if (root.isObject() && root.has(tableName)) {
-                    JsonNode node = root.get(tableName);
-                    if (node.isArray() && node.size() > 0) node = node.get(0);
-                    if (node.isObject()) {
-                        policy.required.addAll(readStringArray(node, "required"));
-                        policy.optional.addAll(readStringArray(node, "optional"));
-                        policy.ignore.addAll(readStringArray(node, "ignore"));
-                        policy.ignore.addAll(readStringArray(node, "ignored"));
-                    }
-                }
-            } catch (Exception ex) {
-                log("TABLE POLICY: failed to load " + rulesPath + " -> " + ex.getMessage());
-            }
-        }
-
-        policy.required = dedup(policy.required);
-        policy.optional = dedup(policy.optional);
-        policy.ignore = dedup(policy.ignore);
-
-        tablePolicyCache.put(tableName, policy);
-        return policy;
+    private SchemaRegistry.TablePolicy getTablePolicy(String tableName) {
+        return schemas().tablePolicy(tableName);
     }
 
-    private List<String> readStringArray(JsonNode node, String field) {
-        List<String> out = new ArrayList<>();
-        if (node == null || !node.has(field) || !node.get(field).isArray()) return out;
-        for (JsonNode v : node.get(field)) {
-            if (v.isTextual()) {
-                String s = v.asText().trim();
-                if (!s.isEmpty()) out.add(s.replace('-', '_'));
-            }
-        }
-        return out;
+    private SchemaRegistry schemas() {
+        return SchemaRegistry.forDir(Path.of(schemaDir));
     }
 
     private <T> List<T> dedup(List<T> values) {
@@ -470,39 +698,31 @@ public class Testautomation {
     }
 
     private void printScenarioTableSummary(ValidationReport report) {
-        int pass = 0;
-        int fail = 0;
-        int skipped = 0;
-        for (utilities.JsonCompare.ColumnResult r : report.results) {
-            if ("PASS".equals(r.status)) pass++;
-            if ("FAIL".equals(r.status)) fail++;
-            if ("SKIPPED".equals(r.status)) skipped++;
-        }
-
-        System.out.println("Status      : " + report.status);
-        System.out.println("Columns     : total=" + report.results.size() + " pass=" + pass + " fail=" + fail + " skipped=" + skipped);
-        System.out.println(SEP);
+        CONSOLE.info("Status      : " + report.status + (report.truncated ? " (stopped early: failure limit reached)" : "")
+                + (report.unchanged ? " (unchanged since last green run)" : ""));
+        CONSOLE.info("Columns     : total=" + report.totalCount() + " pass=" + report.passCount + " fail=" + report.failCount + " skipped=" + report.skippedCount);
+        CONSOLE.info(SEP);
     }
 
     private void printRunHeader() {
-        System.out.println(SEP);
-        System.out.println("DB EVENT VALIDATION");
-        System.out.println("Payload     : " + payloadPath);
-        System.out.println("Expected    : " + expectedPath);
-        System.out.println("Schema dir  : " + schemaDir);
-        System.out.println("DB          : " + host + ":" + port + "/" + database);
-        System.out.println(SEP);
+        CONSOLE.info(SEP);
+        CONSOLE.info("DB EVENT VALIDATION");
+        CONSOLE.info("Payload     : " + payloadPath);
+        CONSOLE.info("Expected    : " + expectedPath);
+        CONSOLE.info("Schema dir  : " + schemaDir);
+        CONSOLE.info("DB          : " + host + ":" + port + "/" + database);
+        CONSOLE.info(SEP);
     }
 
     private void printScenarioHeader(String eventId, String orderId) {
-        System.out.println("Scenario");
-        System.out.println("  eventId   : " + eventId);
-        System.out.println("  orderId   : " + orderId);
+        CONSOLE.info("Scenario");
+        CONSOLE.info("  eventId   : " + eventId);
+        CONSOLE.info("  orderId   : " + orderId);
     }
 
     private void printTableHeader(String tableName, int expectedRows) {
-        System.out.println("Table       : " + tableName);
-        System.out.println("ExpectedRows: " + expectedRows);
+        CONSOLE.info("Table       : " + tableName);
+        CONSOLE.info("ExpectedRows: " + expectedRows);
     }
 
     private void printRunSummary() {
@@ -511,23 +731,42 @@ public class Testautomation {
         int colPass = 0;
         int colFail = 0;
         int colSkipped = 0;
+        int unchanged = 0;
 
         for (ValidationReport r : reports) {
             if ("FAIL".equals(r.status)) reportFail++; else reportPass++;
-            for (utilities.JsonCompare.ColumnResult c : r.results) {
-                if ("PASS".equals(c.status)) colPass++;
-                if ("FAIL".equals(c.status)) colFail++;
-                if ("SKIPPED".equals(c.status)) colSkipped++;
-            }
+            if (r.unchanged) unchanged++;
+            colPass += r.passCount;
+            colFail += r.failCount;
+            colSkipped += r.skippedCount;
         }
 
-        System.out.println("RUN SUMMARY");
-        System.out.println("  tableReports : " + reports.size() + " (pass=" + reportPass + ", fail=" + reportFail + ")");
-        System.out.println("  columns      : pass=" + colPass + ", fail=" + colFail + ", skipped=" + colSkipped);
-        Path passFile = writePassReportFile();
-        System.out.println("  passReport   : " + passFile);
+        CONSOLE.info("RUN SUMMARY");
+        CONSOLE.info("  tableReports : " + reports.size() + " (pass=" + reportPass + ", fail=" + reportFail + ")");
+        CONSOLE.info("  columns      : pass=" + colPass + ", fail=" + colFail + ", skipped=" + colSkipped);
+        if (unchanged > 0) {
+            CONSOLE.info("  unchanged    : " + unchanged + " table reports reused from the last green run (one <row> line each in the pass report)");
+        }
+        CONSOLE.info("  passReport   : " + passReportFile);
+        if (resultsFile != null) {
+            CONSOLE.info("  results      : " + resultsFile);
+        }
+        for (Map.Entry<String, utilities.ConnectionPool.PoolMetrics> e : dbUtil.poolMetrics().entrySet()) {
+            CONSOLE.info("  dbPool       : " + e.getKey() + " " + e.getValue());
+        }
+        CONSOLE.info("  metrics      : " + writeMetricsFiles());
         printValidationCasesTable(false);
-        System.out.println(SEP);
+        CONSOLE.info(SEP);
+    }
+
+    private Path writeMetricsFiles() {
+        Path outDir = Path.of(System.getProperty("metrics.dir", "target/metrics"));
+        try {
+            Metrics.shared().export(outDir);
+        } catch (Exception ex) {
+            log("METRICS: failed to write files -> " + ex.getMessage());
+        }
+        return outDir;
     }
 
     private void printValidationCasesTable(boolean includePass) {
@@ -542,29 +781,29 @@ public class Testautomation {
                             "<n/a>",
                             "<n/a>",
                             "FAIL",
-                            normalizeCell(err)
+                            ResultSink.normalizeCell(err)
                     });
                 }
             }
             for (utilities.JsonCompare.ColumnResult r : report.results) {
-                if (!includePass && !"FAIL".equals(r.status) && !"SKIPPED".equals(r.status)) {
+                if (!includePass && r.status == JsonCompare.Status.PASS) {
                     continue;
                 }
                 rows.add(new String[]{
                         report.tableName,
-                        r.column,
+                        r.column(),
                         report.eventId,
-                        normalizeCell(r.expected),
-                        normalizeCell(r.actual),
-                        r.status,
-                        normalizeCell(r.reason)
+                        ResultSink.normalizeCell(r.expected),
+                        ResultSink.normalizeCell(r.actual),
+                        r.status.name(),
+                        ResultSink.normalizeCell(r.reason())
                 });
             }
         }
 
         if (rows.isEmpty()) {
-            System.out.println(includePass ? "ALL VALIDATION CASES" : "FAILED/SKIPPED CASES");
-            System.out.println("  none");
+            CONSOLE.info(includePass ? "ALL VALIDATION CASES" : "FAILED/SKIPPED CASES");
+            CONSOLE.info("  none");
             return;
         }
 
@@ -579,60 +818,55 @@ public class Testautomation {
 
         for (int i = 0; i < widths.length; i++) widths[i] = Math.min(widths[i], 60);
 
-        System.out.println(includePass ? "ALL VALIDATION CASES" : "FAILED/SKIPPED CASES");
-        System.out.println(formatTableRow(headers, widths));
-        System.out.println(formatTableSeparator(widths));
+        CONSOLE.info(includePass ? "ALL VALIDATION CASES" : "FAILED/SKIPPED CASES");
+        CONSOLE.info(formatTableRow(headers, widths));
+        CONSOLE.info(formatTableSeparator(widths));
         for (String[] row : rows) {
             String[] clipped = new String[row.length];
             for (int i = 0; i < row.length; i++) clipped[i] = clip(row[i], widths[i]);
-            System.out.println(formatTableRow(clipped, widths));
+            CONSOLE.info(formatTableRow(clipped, widths));
         }
     }
 
-    private Path writePassReportFile() {
-        List<String[]> rows = new ArrayList<>();
-        for (ValidationReport report : reports) {
-            for (utilities.JsonCompare.ColumnResult r : report.results) {
-                if (!"PASS".equals(r.status)) {
-                    continue;
-                }
-                rows.add(new String[]{
-                        report.tableName,
-                        r.column,
-                        report.eventId,
-                        normalizeCell(r.expected),
-                        normalizeCell(r.actual),
-                        r.status
-                });
+    private OrderedResultSink openResultSinks() {
+        Path outDir = Path.of("target", "validation-reports");
+        long ts = System.currentTimeMillis();
+        List<ResultSink> sinks = new ArrayList<>();
+        try {
+            CsvResultSink passSink = new CsvResultSink(outDir.resolve("pass-report-" + ts + ".csv"), EnumSet.of(JsonCompare.Status.PASS));
+            sinks.add(passSink);
+            passReportFile = passSink.file();
+        } catch (Exception ex) {
+            log("PASS REPORT: failed to write file -> " + ex.getMessage());
+            passReportFile = outDir.resolve("pass-report-write-failed.csv");
+        }
+        if (Boolean.getBoolean("report.jsonl")) {
+            try {
+                JsonlResultSink jsonlSink = new JsonlResultSink(outDir.resolve("results-" + ts + ".jsonl"));
+                sinks.add(jsonlSink);
+                resultsFile = jsonlSink.file();
+            } catch (Exception ex) {
+                log("RESULTS: failed to write file -> " + ex.getMessage());
             }
         }
+        boolean summaryOnly = !"full".equalsIgnoreCase(System.getProperty("report.mode", "summary"));
+        return new OrderedResultSink(sinks, summaryOnly);
+    }
 
+    private void writeResults(OrderedResultSink sink, int sequence, ValidationReport report) {
         try {
-            Path outDir = Path.of("target", "validation-reports");
-            Files.createDirectories(outDir);
-            Path outFile = outDir.resolve("pass-report-" + System.currentTimeMillis() + ".csv");
-            List<String> lines = new ArrayList<>();
-            lines.add("table,columnname,order/id,expected,actual,status");
-            for (String[] row : rows) {
-                lines.add(csv(row));
-            }
-            Files.write(outFile, lines, StandardCharsets.UTF_8);
-            return outFile;
+            sink.write(sequence, report);
         } catch (Exception ex) {
-            log("PASS REPORT: failed to write file -> " + ex.getMessage());
-            return Path.of("target", "validation-reports", "pass-report-write-failed.csv");
+            log("RESULTS: failed to write report for table=" + report.tableName + " -> " + ex.getMessage());
         }
     }
 
-    private String csv(String[] row) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < row.length; i++) {
-            if (i > 0) sb.append(",");
-            String val = row[i] == null ? "" : row[i];
-            String escaped = val.replace("\"", "\"\"");
-            sb.append("\"").append(escaped).append("\"");
+    private void skipResults(OrderedResultSink sink, int sequence) {
+        try {
+            sink.skip(sequence);
+        } catch (Exception ex) {
+            log("RESULTS: failed to release report slot " + sequence + " -> " + ex.getMessage());
         }
-        return sb.toString();
     }
 
     private String formatTableRow(String[] values, int[] widths) {
@@ -666,44 +900,6 @@ public class Testautomation {
         return v.substring(0, max - 3) + "...";
     }
 
-    private String normalizeCell(String value) {
-        if (value == null) return "<null>";
-        String v = value.replace("\r", " ").replace("\n", " ").trim();
-        if (v.isEmpty()) return "<empty>";
-        return v;
-    }
-
-    private List<PayloadRecord> extractPayloadRecords(JsonNode node) {
-        List<PayloadRecord> records = new ArrayList<>();
-        collectPayloadRecords(node, records);
-        return records;
-    }
-
-    private void collectPayloadRecords(JsonNode node, List<PayloadRecord> records) {
-        if (node == null || node.isNull()) {
-            return;
-        }
-        if (node.isArray()) {
-            for (JsonNode child : node) {
-                collectPayloadRecords(child, records);
-            }
-            return;
-        }
-        if (!node.isObject()) {
-            return;
-        }
-
-        String eventId = firstText(node, "event-id", "id", "event_id");
-        String orderId = firstText(node, "order-id", "orderid", "order_id");
-        if (orderId.isEmpty()) {
-            orderId = nestedText(node, "data", "orderId");
-        }
-
-        if (!eventId.isEmpty() || !orderId.isEmpty()) {
-            records.add(new PayloadRecord(eventId, orderId));
-        }
-    }
-
     private String firstText(JsonNode node, String... names) {
         for (String name : names) {
             if (node.has(name) && !node.get(name).isNull()) {
@@ -714,37 +910,31 @@ public class Testautomation {
         return "";
     }
 
-    private String nestedText(JsonNode node, String parent, String child) {
-        if (node.has(parent) && node.get(parent).isObject()) {
-            JsonNode p = node.get(parent);
-            if (p.has(child) && !p.get(child).isNull()) {
-                return p.get(child).asText().trim();
-            }
-        }
-        return "";
-    }
+    private static class ValidationPlan {
+        final List<RowCheck> checks;
+        final Map<String, List<LinkedHashMap<String, String>>> criteriaByTable;
+        final int matchedExpectedRows;
 
-    private JsonNode normalizeExpectedRow(JsonNode row) {
-        if (!row.isObject()) {
-            return row;
-        }
-        ObjectNode normalized = mapper.createObjectNode();
-        Iterator<String> fields = row.fieldNames();
-        while (fields.hasNext()) {
-            String field = fields.next();
-            String normalizedField = field.replace('-', '_');
-            normalized.set(normalizedField, row.get(field));
+        ValidationPlan(List<RowCheck> checks, Map<String, List<LinkedHashMap<String, String>>> criteriaByTable, int matchedExpectedRows) {
+            this.checks = checks;
+            this.criteriaByTable = criteriaByTable;
+            this.matchedExpectedRows = matchedExpectedRows;
         }
-        return normalized;
     }
 
-    private static class PayloadRecord {
-        final String eventId;
-        final String orderId;
+    private static class RowCheck {
+        final PayloadRecord payloadRecord;
+        final ExpectedTable table;
+        final int expectedRowCount;
+        final JsonNode expectedRow;
+        final LinkedHashMap<String, String> criteria;
 
-        PayloadRecord(String eventId, String orderId) {
-            this.eventId = eventId == null ? "" : eventId;
-            this.orderId = orderId == null ? "" : orderId;
+        RowCheck(PayloadRecord payloadRecord, ExpectedTable table, int expectedRowCount, JsonNode expectedRow, LinkedHashMap<String, String> criteria) {
+            this.payloadRecord = payloadRecord;
+            this.table = table;
+            this.expectedRowCount = expectedRowCount;
+            this.expectedRow = expectedRow;
+            this.criteria = criteria;
         }
     }
 
@@ -756,11 +946,11 @@ public class Testautomation {
 
     private static class ExpectedTable {
         final String tableName;
-        final List<JsonNode> matchedRows;
+        final ExpectedIndex matchedRows;
         final JsonCompare.Schema schema;
         final LookupConfig lookupConfig;
 
-        ExpectedTable(String tableName, List<JsonNode> matchedRows, JsonCompare.Schema schema, LookupConfig lookupConfig) {
+        ExpectedTable(String tableName, ExpectedIndex matchedRows, JsonCompare.Schema schema, LookupConfig lookupConfig) {
             this.tableName = tableName;
             this.matchedRows = matchedRows;
             this.schema = schema;
@@ -768,24 +958,7 @@ public class Testautomation {
         }
 
         List<JsonNode> getMatchedRows(PayloadRecord payloadRecord) {
-            LinkedHashMap<String, JsonNode> dedup = new LinkedHashMap<>();
-            for (JsonNode row : matchedRows) {
-                String rowEventId = row.has("id") ? row.get("id").asText() : row.path("event_id").asText("");
-                String rowOrderId = row.has("orderid") ? row.get("orderid").asText() : row.path("order_id").asText("");
-
-                boolean matchEvent = payloadRecord.eventId.isEmpty() || payloadRecord.eventId.equals(rowEventId);
-                boolean matchOrder = payloadRecord.orderId.isEmpty() || payloadRecord.orderId.equals(rowOrderId);
-                if (matchEvent || matchOrder) {
-                    dedup.put(row.toString(), row);
-                }
-            }
-            return new ArrayList<>(dedup.values());
+            return matchedRows.match(payloadRecord.eventId, payloadRecord.orderId);
         }
     }
-
-    private static class TableColumnPolicy {
-        List<String> required = new ArrayList<>();
-        List<String> optional = new ArrayList<>();
-        List<String> ignore = new ArrayList<>();
-    }
 }
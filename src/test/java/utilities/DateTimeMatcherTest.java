@@ -0,0 +1,55 @@
+package utilities;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DateTimeMatcherTest {
+
+    @Test
+    public void localAcceptsSpaceOrTSeparatorAndFractionalSeconds() {
+        assertTrue(DateTimeMatcher.LOCAL.matches("2024-01-31 10:15:30"));
+        assertTrue(DateTimeMatcher.LOCAL.matches("2024-01-31T10:15:30"));
+        assertTrue(DateTimeMatcher.LOCAL.matches("2024-01-31 10:15:30.5"));
+        assertTrue(DateTimeMatcher.LOCAL.matches("2024-01-31T10:15:30.123456789"));
+    }
+
+    @Test
+    public void localRejectsMalformedValues() {
+        assertFalse(DateTimeMatcher.LOCAL.matches(null));
+        assertFalse(DateTimeMatcher.LOCAL.matches(""));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31"));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31 10:15"));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31 10:15:3"));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024/01/31 10:15:30"));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31_10:15:30"));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31 10:15:30."));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31 10:15:30x"));
+        assertFalse(DateTimeMatcher.LOCAL.matches(" 2024-01-31 10:15:30"));
+    }
+
+    @Test
+    public void localRejectsOffsets() {
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31T10:15:30Z"));
+        assertFalse(DateTimeMatcher.LOCAL.matches("2024-01-31T10:15:30+01:00"));
+    }
+
+    @Test
+    public void anyAcceptsOffsetsAndSurroundingWhitespace() {
+        assertTrue(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30Z"));
+        assertTrue(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30.250Z"));
+        assertTrue(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30+01:00"));
+        assertTrue(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30-0530"));
+        assertTrue(DateTimeMatcher.ANY.matches("  2024-01-31 10:15:30\t"));
+    }
+
+    @Test
+    public void anyRejectsIncompleteOffsets() {
+        assertFalse(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30+01"));
+        assertFalse(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30+01:0"));
+        assertFalse(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30+01:000"));
+        assertFalse(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30Zx"));
+        assertFalse(DateTimeMatcher.ANY.matches("2024-01-31T10:15:30 UTC"));
+    }
+}
@@ -0,0 +1,127 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class EventTriggerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ENDPOINT = "Endpoint=http://127.0.0.1:1/events;AccessKey=k";
+
+    // Each event serializes to {"id":"eN"}: 11 bytes. A batch of n events is [e1,e2,...]: 12n + 1 bytes.
+    private static final int EVENT_BYTES = 11;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /** Records every batch body instead of posting it. */
+    private static final class StubPublisher extends EventPublisher {
+        final List<byte[]> bodies = new ArrayList<>();
+        final List<String> contentTypes = new ArrayList<>();
+
+        StubPublisher() {
+            super(HttpClient.newHttpClient(), 1, Duration.ofSeconds(1));
+        }
+
+        @Override
+        public synchronized CompletableFuture<PublishResult> publish(URI endpoint, byte[] body, String contentType) {
+            bodies.add(body);
+            contentTypes.add(contentType);
+            return CompletableFuture.completedFuture(new PublishResult(200, "", 0, 0));
+        }
+    }
+
+    private StubPublisher publisher;
+    private EventTrigger trigger;
+
+    @Before
+    public void setUp() {
+        publisher = new StubPublisher();
+        trigger = new EventTrigger(publisher);
+    }
+
+    private String payload(int events) throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= events; i++) {
+            if (i > 1) json.append(", ");
+            json.append("{\"id\": \"e").append(i).append("\"}");
+        }
+        Path path = tmp.newFile().toPath();
+        Files.writeString(path, json.append(']').toString());
+        return path.toString();
+    }
+
+    private static List<List<String>> ids(List<EventTrigger.BatchResult> results) {
+        List<List<String>> out = new ArrayList<>();
+        for (EventTrigger.BatchResult r : results) {
+            out.add(r.eventIds);
+        }
+        return out;
+    }
+
+    @Test
+    public void batchOfExactlyMaxEventsIsSentWhole() throws Exception {
+        List<EventTrigger.BatchResult> results = trigger.azureEventTriggerBatch(ENDPOINT, payload(3), 3, 1 << 20);
+
+        assertEquals(List.of(List.of("e1", "e2", "e3")), ids(results));
+        assertEquals(List.of("application/cloudevents-batch+json"), publisher.contentTypes);
+        JsonNode body = MAPPER.readTree(publisher.bodies.get(0));
+        assertEquals(3, body.size());
+        assertTrue(results.get(0).isSuccess());
+    }
+
+    @Test
+    public void oneEventOverMaxEventsStartsANewBatch() throws Exception {
+        List<EventTrigger.BatchResult> results = trigger.azureEventTriggerBatch(ENDPOINT, payload(4), 3, 1 << 20);
+
+        assertEquals(List.of(List.of("e1", "e2", "e3"), List.of("e4")), ids(results));
+    }
+
+    @Test
+    public void batchOfExactlyMaxBytesIsSentWhole() throws Exception {
+        int twoEvents = 2 * (EVENT_BYTES + 1) + 1;
+
+        List<EventTrigger.BatchResult> results = trigger.azureEventTriggerBatch(ENDPOINT, payload(2), 100, twoEvents);
+
+        assertEquals(List.of(List.of("e1", "e2")), ids(results));
+        assertEquals(twoEvents, publisher.bodies.get(0).length);
+    }
+
+    @Test
+    public void oneByteOverMaxBytesStartsANewBatch() throws Exception {
+        int twoEvents = 2 * (EVENT_BYTES + 1) + 1;
+
+        List<EventTrigger.BatchResult> results = trigger.azureEventTriggerBatch(ENDPOINT, payload(3), 100, twoEvents - 1);
+
+        assertEquals(List.of(List.of("e1"), List.of("e2"), List.of("e3")), ids(results));
+        for (byte[] body : publisher.bodies) {
+            assertEquals(EVENT_BYTES + 2, body.length);
+            assertEquals(1, MAPPER.readTree(body).size());
+        }
+    }
+
+    @Test
+    public void eventLargerThanMaxBytesIsSentOnItsOwn() throws Exception {
+        List<EventTrigger.BatchResult> results = trigger.azureEventTriggerBatch(ENDPOINT, payload(3), 100, EVENT_BYTES);
+
+        assertEquals(List.of(List.of("e1"), List.of("e2"), List.of("e3")), ids(results));
+        for (byte[] body : publisher.bodies) {
+            assertEquals(EVENT_BYTES + 2, body.length);
+            assertEquals(1, MAPPER.readTree(body).size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonCompareSchemaTest {
+
+    private static JsonCompare.ColumnRule rule(String type) {
+        JsonCompare.ColumnRule rule = new JsonCompare.ColumnRule();
+        rule.type = type;
+        return rule;
+    }
+
+    @Test
+    public void compiledIsReusedWhileNothingChanges() {
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.requiredFields.add("id");
+        CompiledSchema first = schema.compiled();
+        assertSame(first, schema.compiled());
+    }
+
+    @Test
+    public void replacingARuleForAnExistingColumnRecompiles() {
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.rules.put("payload", rule("json"));
+        assertTrue(schema.compiled().rule("payload").json);
+
+        schema.rules.put("payload", rule("time"));
+        CompiledSchema.CompiledRule recompiled = schema.compiled().rule("payload");
+        assertFalse(recompiled.json);
+        assertTrue(recompiled.time);
+    }
+
+    @Test
+    public void sameSizeEditsRecompile() {
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.requiredFields.add("id");
+        schema.rules.put("payload", rule("json"));
+        schema.compiled();
+
+        schema.requiredFields.set(0, "order_id");
+        assertTrue(schema.compiled().isRequired("order_id"));
+
+        for (Map.Entry<String, JsonCompare.ColumnRule> e : schema.rules.entrySet()) {
+            e.setValue(rule("time"));
+        }
+        assertTrue(schema.compiled().rule("payload").time);
+
+        schema.requiredFields.remove("order_id");
+        schema.optionalFields.add("order_id");
+        assertFalse(schema.compiled().isRequired("order_id"));
+        assertTrue(schema.compiled().isOptional("order_id"));
+    }
+
+    @Test
+    public void directlyAssignedCollectionsAreTracked() throws Exception {
+        JsonCompare.Schema schema = new ObjectMapper().readValue(
+                "{\"requiredFields\":[\"id\"],\"rules\":{\"payload\":{\"type\":\"json\"}}}", JsonCompare.Schema.class);
+        assertTrue(schema.compiled().isRequired("id"));
+        assertTrue(schema.compiled().rule("payload").json);
+
+        schema.rules.put("payload", rule(""));
+        assertFalse(schema.compiled().rule("payload").json);
+
+        List<String> optional = new ArrayList<>(List.of("note"));
+        schema.optionalFields = optional;
+        assertTrue(schema.compiled().isOptional("note"));
+        schema.optionalFields.set(0, "memo");
+        assertTrue(schema.compiled().isOptional("memo"));
+    }
+}
@@ -0,0 +1,114 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonCompareTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode rows(String json) throws Exception {
+        return MAPPER.readTree(json);
+    }
+
+    private static Map<String, Object> row(Object... pairs) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            row.put((String) pairs[i], pairs[i + 1]);
+        }
+        return row;
+    }
+
+    private static JsonCompare.Schema keyedSchema(String... keyColumns) {
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.keyColumns = new ArrayList<>(List.of(keyColumns));
+        return schema;
+    }
+
+    @Test
+    public void missingRowTripsFailFast() throws Exception {
+        JsonCompare compare = new JsonCompare();
+        FailureBudget budget = new FailureBudget(1);
+        compare.setFailureBudget(budget);
+
+        JsonCompare.ValidationReport report = compare.validateTable("src", "e1", "orders",
+                List.of(row("id", 2, "status", "open")),
+                rows("[{\"id\": 1, \"status\": \"open\"}, {\"id\": 2, \"status\": \"open\"}]"),
+                keyedSchema("id"));
+
+        assertEquals("FAIL", report.status);
+        assertEquals(1, budget.failures());
+        assertTrue(budget.exhausted());
+        // The budget ran out on the missing row, so the second row was never compared.
+        assertTrue(report.truncated);
+        assertEquals(0, report.passCount);
+    }
+
+    @Test
+    public void rowCountMismatchCountsAgainstTheBudget() throws Exception {
+        JsonCompare compare = new JsonCompare();
+        FailureBudget budget = new FailureBudget(2);
+        compare.setFailureBudget(budget);
+
+        JsonCompare.ValidationReport report = compare.validateTable("src", "e1", "orders",
+                List.of(row("id", 1)),
+                rows("[{\"id\": 1}, {\"id\": 2}]"),
+                new JsonCompare.Schema());
+
+        assertEquals("FAIL", report.status);
+        assertEquals(1, report.globalErrors.size());
+        assertEquals(1, budget.failures());
+        assertFalse(report.truncated);
+    }
+
+    @Test
+    public void serverMatchedRowsPairDespiteKeyTextDifferences() throws Exception {
+        // 'ABC' = 'abc' under a _ci collation and 1.0 = 1 numerically; the batched fetch matched both.
+        JsonCompare.ValidationReport report = new JsonCompare().validateTable("src", "e1", "orders",
+                List.of(row("code", "abc", "id", 1, "status", "open")), new int[]{0},
+                rows("[{\"code\": \"ABC\", \"id\": 1.0, \"status\": \"open\"}]"),
+                keyedSchema("code", "id"));
+
+        assertTrue(report.globalErrors.toString(), report.globalErrors.isEmpty());
+        assertTrue(report.results.stream().anyMatch(r -> r.column().equals("status") && r.status == JsonCompare.Status.PASS));
+    }
+
+    @Test
+    public void serverMatchedRowsPreferEqualKeyTextAndReportLeftovers() throws Exception {
+        JsonCompare.ValidationReport report = new JsonCompare().validateTable("src", "e1", "audit",
+                List.of(row("id", 1, "operation", "UPDATE", "note", "b"), row("id", 1, "operation", "INSERT", "note", "a")), new int[]{0, 0},
+                rows("[{\"id\": 1, \"operation\": \"INSERT\", \"note\": \"a\"}]"),
+                keyedSchema("id", "operation"));
+
+        assertEquals(0, report.failCount);
+        assertTrue(report.globalErrors.contains("No expected row for actual key id=1, operation=UPDATE"));
+    }
+
+    @Test
+    public void incompleteExpectedKeyFallsBackToPosition() throws Exception {
+        JsonCompare.ValidationReport report = new JsonCompare().validateTable("src", "e1", "audit",
+                List.of(row("id", 1, "operation", "INSERT", "note", "a"), row("id", 2, "operation", "INSERT", "note", "b")),
+                rows("[{\"id\": 2, \"operation\": \"INSERT\", \"note\": \"b\"}, {\"id\": 1, \"note\": \"a\"}]"),
+                keyedSchema("id", "operation"));
+
+        assertTrue(report.globalErrors.toString(), report.globalErrors.isEmpty());
+        assertEquals("PASS", report.status);
+    }
+
+    @Test
+    public void textKeysStillReportUnpairedRows() throws Exception {
+        JsonCompare.ValidationReport report = new JsonCompare().validateTable("src", "e1", "orders",
+                List.of(row("id", 3, "status", "open")),
+                rows("[{\"id\": 4, \"status\": \"open\"}]"),
+                keyedSchema("id"));
+
+        assertEquals(List.of("No actual row for expected key id=4", "No expected row for actual key id=3"), report.globalErrors);
+    }
+}
@@ -0,0 +1,101 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JsonPathTrieTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode json(String text) throws Exception {
+        return MAPPER.readTree(text);
+    }
+
+    private static JsonNode[][] resolve(List<String> paths, JsonNode expected, JsonNode actual) {
+        JsonPathTrie trie = new JsonPathTrie(paths);
+        JsonNode[] e = new JsonNode[trie.size()];
+        JsonNode[] a = new JsonNode[trie.size()];
+        trie.resolve(expected, actual, e, a);
+        return new JsonNode[][]{e, a};
+    }
+
+    @Test
+    public void resolvesFieldAndNestedArrayPaths() throws Exception {
+        JsonNode doc = json("{\"a\":{\"b\":1},\"items\":[{\"id\":10,\"tags\":[\"x\",\"y\"]},{\"id\":11,\"tags\":[\"z\"]}],"
+                + "\"matrix\":[[1,2],[3,4]]}");
+        JsonNode[][] out = resolve(Arrays.asList("a.b", "items[1].id", "items[0].tags[1]", "matrix[1][0]", "items[1].tags"), doc, doc);
+
+        assertEquals(1, out[0][0].asInt());
+        assertEquals(11, out[0][1].asInt());
+        assertEquals("y", out[0][2].asText());
+        assertEquals(3, out[0][3].asInt());
+        assertTrue(out[0][4].isArray());
+        assertArrayEquals(out[0], out[1]);
+    }
+
+    @Test
+    public void leadingIndexAppliesToARootArray() throws Exception {
+        JsonNode doc = json("[{\"x\":\"first\"},{\"x\":\"second\"}]");
+        JsonNode[][] out = resolve(Arrays.asList("[1].x", "[0]"), doc, doc);
+
+        assertEquals("second", out[0][0].asText());
+        assertEquals("first", out[0][1].get("x").asText());
+    }
+
+    @Test
+    public void expectedAndActualResolveIndependently() throws Exception {
+        JsonNode expected = json("{\"items\":[{\"id\":1},{\"id\":2}]}");
+        JsonNode actual = json("{\"items\":[{\"id\":1}]}");
+        JsonNode[][] out = resolve(Arrays.asList("items[1].id", "items[0].id"), expected, actual);
+
+        assertEquals(2, out[0][0].asInt());
+        assertNull("index past the end", out[1][0]);
+        assertEquals(1, out[1][1].asInt());
+    }
+
+    @Test
+    public void typeMismatchesYieldNull() throws Exception {
+        JsonNode doc = json("{\"list\":[1,2],\"obj\":{\"k\":\"v\"},\"scalar\":5}");
+        JsonNode[][] out = resolve(Arrays.asList("list.k", "obj[0]", "scalar.k", "scalar[0]", "missing.k", "list[-1]"), doc, doc);
+
+        for (int i = 0; i < out[0].length; i++) {
+            assertNull("slot " + i, out[0][i]);
+        }
+    }
+
+    @Test
+    public void sharedPrefixesFillEverySlot() throws Exception {
+        JsonNode doc = json("{\"p\":{\"q\":{\"r\":1,\"s\":2}}}");
+        JsonNode[][] out = resolve(Arrays.asList("p.q.r", "p.q", "p.q.s", "p.q.r"), doc, doc);
+
+        assertEquals(1, out[0][0].asInt());
+        assertTrue(out[0][1].isObject());
+        assertEquals(2, out[0][2].asInt());
+        assertEquals(1, out[0][3].asInt());
+    }
+
+    @Test
+    public void malformedPathsKeepTheirSlotButNeverResolve() throws Exception {
+        JsonNode doc = json("{\"a\":[1,2],\"b\":3}");
+        JsonNode[][] out = resolve(Arrays.asList("a[x]", "a[1", "", null, "b"), doc, doc);
+
+        assertEquals(5, out[0].length);
+        assertNull(out[0][0]);
+        assertNull(out[0][1]);
+        assertNull(out[0][2]);
+        assertNull(out[0][3]);
+        assertEquals(3, out[0][4].asInt());
+    }
+
+    @Test
+    public void missingTreesResolveToNull() {
+        JsonNode[][] out = resolve(Arrays.asList("a", "[0]"), null, null);
+        assertNull(out[0][0]);
+        assertNull(out[1][1]);
+    }
+}
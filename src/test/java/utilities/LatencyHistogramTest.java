@@ -0,0 +1,105 @@
+package utilities;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZeros() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.min());
+        assertEquals(0, h.max());
+        assertEquals(0, h.percentile(50));
+        assertEquals(0.0, h.mean(), 0.0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 100; v++) {
+            h.record(v);
+        }
+        assertEquals(100, h.count());
+        assertEquals(1, h.min());
+        assertEquals(100, h.max());
+        assertEquals(50.5, h.mean(), 1e-9);
+        assertEquals(50, h.percentile(50));
+        assertEquals(90, h.percentile(90));
+        assertEquals(99, h.percentile(99));
+        assertEquals(100, h.percentile(99.9));
+    }
+
+    @Test
+    public void percentileBoundaries() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(10);
+        h.record(20);
+        h.record(30);
+        h.record(40);
+        assertEquals("p0 is the smallest value", 10, h.percentile(0));
+        assertEquals("rank rounds up: 25% of 4 is rank 1", 10, h.percentile(25));
+        assertEquals("just over a rank boundary moves to the next value", 20, h.percentile(25.1));
+        assertEquals(20, h.percentile(50));
+        assertEquals(40, h.percentile(100));
+    }
+
+    @Test
+    public void bucketBoundaryAboveLinearRange() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(127);
+        h.record(128);
+        h.record(129);
+        h.record(130);
+        assertEquals(127, h.percentile(25));
+        assertEquals("128 and 129 share a bucket reported by its upper bound", 129, h.percentile(50));
+        assertEquals(129, h.percentile(75));
+        assertEquals(130, h.percentile(100));
+    }
+
+    @Test
+    public void largeValuesStayWithinRelativeError() {
+        LatencyHistogram h = new LatencyHistogram();
+        long[] values = {1_000, 123_456, 9_999_999, 1_234_567_890_123L, Long.MAX_VALUE / 3};
+        for (long v : values) {
+            LatencyHistogram single = new LatencyHistogram();
+            single.record(v);
+            single.record(Long.MAX_VALUE);
+            long reported = single.percentile(50);
+            assertTrue(v + " -> " + reported, reported >= v);
+            assertTrue(v + " -> " + reported, (reported - v) / (double) v < 0.02);
+            h.record(v);
+        }
+        assertEquals(Long.MAX_VALUE / 3, h.percentile(100));
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(0, h.min());
+        assertEquals(0, h.percentile(100));
+    }
+
+    @Test
+    public void addMergesCountsAndExtremes() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(5);
+        b.record(1);
+        b.record(500);
+        a.add(b);
+        a.add(new LatencyHistogram());
+        assertEquals(3, a.count());
+        assertEquals(1, a.min());
+        assertEquals(500, a.max());
+        assertEquals(5, a.percentile(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addRejectsOtherPrecision() {
+        new LatencyHistogram(7).add(new LatencyHistogram(5));
+    }
+}
@@ -0,0 +1,118 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class LoadGeneratorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private HttpServer server;
+    private URI endpoint;
+    private final List<JsonNode> received = new CopyOnWriteArrayList<>();
+    private Path payload;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/events", exchange -> {
+            JsonNode event = MAPPER.readTree(exchange.getRequestBody().readAllBytes());
+            received.add(event);
+            // Every fifth event (n = 0, 5, 10, ...) is rejected.
+            String id = event.path("id").asText();
+            long n = Long.parseLong(id.substring(id.lastIndexOf('-') + 1));
+            byte[] reply = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(n % 5 == 0 ? 500 : 202, reply.length);
+            exchange.getResponseBody().write(reply);
+            exchange.close();
+        });
+        server.start();
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/events");
+
+        payload = tmp.newFile("payload.json").toPath();
+        Files.writeString(payload, "[{\"id\": \"evt-a\", \"data\": {\"orderId\": \"ord-a\"}},"
+                + " {\"id\": \"evt-b\", \"data\": {\"orderId\": \"ord-b\"}}]");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private static LoadGenerator generator() {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        return new LoadGenerator(new EventPublisher(client, 16, Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void constantRateSendsTheScheduledEventsAndCountsFailures() throws Exception {
+        LoadGenerator.LoadReport report = generator().run(endpoint, payload, LoadGenerator.Config.constant(50, Duration.ofSeconds(1)));
+
+        // Send times are fixed by the schedule: one every 20ms for one second.
+        assertEquals(50, report.sent.get());
+        assertEquals(50, received.size());
+        assertEquals(10, report.failed.get());
+        assertEquals(40, report.succeeded.get());
+        assertEquals(50, report.responseTime.count());
+        double rate = report.achievedRate();
+        assertTrue("rate=" + rate, rate > 30 && rate <= 51);
+    }
+
+    @Test
+    public void idsAreTemplatedPerEvent() throws Exception {
+        LoadGenerator.Config config = LoadGenerator.Config.constant(40, Duration.ofMillis(250));
+        config.idTemplate = "{id}-{n}";
+        config.orderIdTemplate = "{orderId}/{id}-{n}";
+        generator().run(endpoint, payload, config);
+
+        assertEquals(10, received.size());
+        Set<String> ids = new HashSet<>();
+        for (JsonNode event : received) {
+            ids.add(event.path("id").asText());
+        }
+        assertEquals(10, ids.size());
+        assertTrue(ids.contains("evt-a-0"));
+        assertTrue(ids.contains("evt-b-1"));
+        assertTrue(ids.contains("evt-a-8"));
+        for (JsonNode event : received) {
+            String id = event.path("id").asText();
+            String template = id.startsWith("evt-a") ? "ord-a" : "ord-b";
+            String n = id.substring(id.lastIndexOf('-') + 1);
+            assertEquals(template + "/" + template.replace("ord", "evt") + "-" + n, event.path("data").path("orderId").asText());
+        }
+    }
+
+    @Test
+    public void rampSendsBetweenTheStartAndEndRates() throws Exception {
+        LoadGenerator.LoadReport report = generator().run(endpoint, payload,
+                LoadGenerator.Config.ramp(10, 90, Duration.ofSeconds(1), Duration.ofSeconds(1)));
+
+        // A linear ramp from 10/s to 90/s over the whole second schedules about 50 events.
+        long sent = report.sent.get();
+        assertTrue("sent=" + sent, sent > 30 && sent < 70);
+        assertEquals(sent, received.size());
+        assertEquals(sent, report.succeeded.get() + report.failed.get());
+    }
+}
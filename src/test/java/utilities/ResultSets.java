@@ -0,0 +1,48 @@
+package utilities;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.List;
+
+/** In-memory ResultSet over literal rows, enough for RowSet.from and the code that reads it. */
+final class ResultSets {
+    private ResultSets() {
+    }
+
+    static ResultSet of(List<String> labels, Object[]... rows) {
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(ResultSets.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.size();
+                        case "getColumnLabel":
+                        case "getColumnName":
+                            return labels.get((Integer) args[0] - 1);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSets.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return meta;
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "getObject":
+                            return rows[cursor[0]][(Integer) args[0] - 1];
+                        case "close":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+                    }
+                });
+    }
+
+    static RowSet rowSet(List<String> labels, Object[]... rows) throws Exception {
+        return RowSet.from(of(labels, rows));
+    }
+}
@@ -0,0 +1,129 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RowDigestTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<RowDigest.Column> COLUMNS = List.of(
+            RowDigest.Column.of("id", "INT", 0),
+            RowDigest.Column.of("created_at", "DATETIME", 0),
+            RowDigest.Column.of("booked_on", "DATE", 0),
+            RowDigest.Column.of("amount", "DECIMAL", 2),
+            RowDigest.Column.of("doc", "JSON", 0),
+            RowDigest.Column.of("note", "VARCHAR", 0));
+
+    /** MD5 of MySQL's CONCAT_WS(CHAR(31), ...) over the strings the server renders for the row. */
+    private static String mysqlDigest(String... rendered) throws Exception {
+        String joined = String.join("\u001f", rendered);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(joined.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static JsonNode row(String json) throws Exception {
+        return MAPPER.readTree(json);
+    }
+
+    @Test
+    public void matchesWhatMySqlRendersForEachType() throws Exception {
+        JsonNode expected = row("{\"id\": 7, \"created_at\": \"2024-03-01T10:15:30\", \"booked_on\": \"2024-03-01\","
+                + " \"amount\": 3.5, \"doc\": {\"b\": [1, 2.5], \"aa\": \"x\", \"a\": true}, \"note\": null}");
+
+        // DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:%s.%f'), DATE_FORMAT(booked_on, '%Y-%m-%d'),
+        // CAST(amount AS CHAR) of a DECIMAL(10,2), CAST(doc AS CHAR), and CHAR(0) for the NULL note.
+        String server = mysqlDigest("7", "2024-03-01 10:15:30.000000", "2024-03-01", "3.50",
+                "{\"a\": true, \"b\": [1, 2.5], \"aa\": \"x\"}", "\u0000");
+
+        assertEquals(server, RowDigest.of(expected, COLUMNS));
+    }
+
+    @Test
+    public void jsonHeldAsStringAndFractionalSecondsAreCanonicalized() throws Exception {
+        JsonNode expected = row("{\"id\": \"7\", \"created_at\": \"2024-03-01 10:15:30.25\", \"booked_on\": \"2024-03-01\","
+                + " \"amount\": \"-0.10\", \"doc\": \"{\\\"k\\\":\\\"line\\\\nbreak\\\",\\\"id\\\":{}}\", \"note\": \"x\"}");
+
+        String server = mysqlDigest("7", "2024-03-01 10:15:30.250000", "2024-03-01", "-0.10",
+                "{\"k\": \"line\\nbreak\", \"id\": {}}", "x");
+
+        assertEquals(server, RowDigest.of(expected, COLUMNS));
+    }
+
+    @Test
+    public void valuesWithoutCanonicalFormAreNotDigested() throws Exception {
+        JsonNode badDate = row("{\"id\": 7, \"created_at\": \"01/03/2024\", \"booked_on\": \"2024-03-01\","
+                + " \"amount\": 3.5, \"doc\": [], \"note\": \"x\"}");
+        JsonNode roundedDecimal = row("{\"id\": 7, \"created_at\": \"2024-03-01 10:15:30\", \"booked_on\": \"2024-03-01\","
+                + " \"amount\": 3.555, \"doc\": [], \"note\": \"x\"}");
+
+        assertEquals("01/03/2024", RowDigest.values(badDate, COLUMNS).get("created_at"));
+        assertEquals("3.555", RowDigest.values(roundedDecimal, COLUMNS).get("amount"));
+        // MySQL would store 3.56; neither row may digest at all.
+        assertNull(RowDigest.of(badDate, COLUMNS));
+        assertNull(RowDigest.of(roundedDecimal, COLUMNS));
+    }
+
+    @Test
+    public void typesWhoseDriverValueDiffersFromMySqlTextAreUnsupported() throws Exception {
+        // TINYINT(1) and BIT(1) come back as Boolean, YEAR as a date, binary types as byte[], DOUBLE and FLOAT
+        // in Java's exponent form, TIMESTAMP in the JVM's zone and TIME as java.sql.Time.
+        for (String type : List.of("TINYINT", "TINYINT UNSIGNED", "BIT", "BOOLEAN", "YEAR", "BINARY", "VARBINARY",
+                "TINYBLOB", "BLOB", "MEDIUMBLOB", "LONGBLOB", "DOUBLE", "FLOAT", "TIMESTAMP", "TIME", "GEOMETRY", "")) {
+            RowDigest.Column column = RowDigest.Column.of("c", type, 0);
+            assertEquals(type, RowDigest.Kind.UNSUPPORTED, column.kind);
+            List<RowDigest.Column> columns = List.of(RowDigest.Column.of("id", "INT", 0), column);
+            assertFalse(type, RowDigest.supported(columns));
+            assertNull(type, RowDigest.of(row("{\"id\": 1, \"c\": \"1\"}"), columns));
+        }
+    }
+
+    @Test
+    public void integerAndTextTypesAreSupported() throws Exception {
+        List<RowDigest.Column> columns = List.of(
+                RowDigest.Column.of("id", "BIGINT UNSIGNED", 0),
+                RowDigest.Column.of("qty", "SMALLINT", 0),
+                RowDigest.Column.of("state", "ENUM", 0),
+                RowDigest.Column.of("body", "LONGTEXT", 0));
+        assertTrue(RowDigest.supported(columns));
+
+        assertEquals(mysqlDigest("18446744073709551615", "-3", "open", "text"),
+                RowDigest.of(row("{\"id\": 18446744073709551615, \"qty\": -3, \"state\": \"open\", \"body\": \"text\"}"), columns));
+    }
+
+    @Test
+    public void valuesAreTheDriverTypes() throws Exception {
+        JsonNode expected = row("{\"id\": 7, \"created_at\": \"2024-03-01 10:15\", \"booked_on\": \"2024-03-01\","
+                + " \"amount\": 3, \"doc\": [], \"note\": \"x\"}");
+
+        Map<String, Object> values = RowDigest.values(expected, COLUMNS);
+
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15), values.get("created_at"));
+        assertEquals(java.sql.Date.valueOf("2024-03-01"), values.get("booked_on"));
+        assertEquals(new BigDecimal("3.00"), values.get("amount"));
+        assertEquals("[]", values.get("doc"));
+        assertEquals("7", values.get("id"));
+    }
+
+    @Test
+    public void sqlExpressionFormatsTemporalColumnsOnTheServer() {
+        String sql = RowDigest.sqlExpression(List.of(
+                RowDigest.Column.of("created_at", "DATETIME", 0),
+                RowDigest.Column.of("booked_on", "DATE", 0),
+                RowDigest.Column.of("amount", "DECIMAL UNSIGNED", 2)));
+
+        assertEquals("MD5(CONCAT_WS(CHAR(31 USING utf8mb4)"
+                + ", IFNULL(DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:%s.%f'), CHAR(0 USING utf8mb4))"
+                + ", IFNULL(DATE_FORMAT(booked_on, '%Y-%m-%d'), CHAR(0 USING utf8mb4))"
+                + ", IFNULL(CAST(amount AS CHAR), CHAR(0 USING utf8mb4))))", sql);
+    }
+}
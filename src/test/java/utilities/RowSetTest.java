@@ -0,0 +1,127 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RowSetTest {
+
+    @Test
+    public void nullOnlyColumnReadsAsNull() throws Exception {
+        RowSet rows = ResultSets.rowSet(List.of("id", "note"),
+                new Object[]{1, null},
+                new Object[]{2, null});
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.isNull(0, 1));
+        assertNull(rows.get(1, 1));
+        assertNull(rows.text(1, 1));
+        assertEquals("2", rows.text(1, 0));
+    }
+
+    @Test
+    public void nullsBeforeAndBetweenPrimitiveValuesAreKept() throws Exception {
+        RowSet rows = ResultSets.rowSet(List.of("amount"),
+                new Object[]{null},
+                new Object[]{7L},
+                new Object[]{null},
+                new Object[]{9L});
+
+        assertNull(rows.get(0, 0));
+        assertEquals(7L, rows.get(1, 0));
+        assertTrue(rows.isNull(2, 0));
+        assertEquals("9", rows.text(3, 0));
+    }
+
+    @Test
+    public void columnIsDemotedWhenALaterValueHasAnotherType() throws Exception {
+        RowSet rows = ResultSets.rowSet(List.of("v"),
+                new Object[]{1},
+                new Object[]{null},
+                new Object[]{"  two "},
+                new Object[]{new BigDecimal("3.50")},
+                new Object[]{4});
+
+        assertEquals(1, rows.get(0, 0));
+        assertNull(rows.get(1, 0));
+        assertEquals("  two ", rows.get(2, 0));
+        assertEquals("two", rows.text(2, 0));
+        assertEquals("3.50", rows.text(3, 0));
+        assertEquals(4, rows.get(4, 0));
+    }
+
+    @Test
+    public void intColumnDemotedByLongKeepsBothValues() throws Exception {
+        RowSet rows = ResultSets.rowSet(List.of("v"), new Object[]{1}, new Object[]{5_000_000_000L});
+
+        assertEquals(1, rows.get(0, 0));
+        assertEquals(5_000_000_000L, rows.get(1, 0));
+        assertEquals("5000000000", rows.text(1, 0));
+    }
+
+    @Test
+    public void floatingPointAndDateTimeValuesRoundTrip() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 2, 29, 23, 59, 58, 123_456_789);
+        Timestamp ts = Timestamp.valueOf(LocalDateTime.of(1999, 12, 31, 0, 0, 1, 500_000_000));
+        RowSet rows = ResultSets.rowSet(List.of("d", "f", "at", "ts"),
+                new Object[]{0.1, 1.5f, at, ts});
+
+        assertEquals(0.1, rows.get(0, 0));
+        assertEquals("0.1", rows.text(0, 0));
+        assertEquals(1.5f, rows.get(0, 1));
+        assertEquals("1.5", rows.text(0, 1));
+        assertEquals(at, rows.get(0, 2));
+        assertEquals("2024-02-29T23:59:58.123456789", rows.text(0, 2));
+        assertEquals(ts, rows.get(0, 3));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() throws Exception {
+        List<Object[]> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add(new Object[]{i % 10 == 0 ? null : (long) i});
+        }
+        RowSet rows = ResultSets.rowSet(List.of("n"), data.toArray(new Object[0][]));
+
+        assertEquals(100, rows.size());
+        assertNull(rows.get(90, 0));
+        assertEquals(99L, rows.get(99, 0));
+    }
+
+    @Test
+    public void selectAndWithoutColumnAreViewsOverTheSameRows() throws Exception {
+        RowSet rows = ResultSets.rowSet(List.of("id", "name", "extra"),
+                new Object[]{1, "a", "x"},
+                new Object[]{2, "b", "y"},
+                new Object[]{3, "c", "z"});
+
+        RowSet picked = rows.select(new int[]{2, 0});
+        assertEquals(2, picked.size());
+        assertEquals("c", picked.text(0, 1));
+
+        RowSet narrowed = picked.withoutColumn(rows.columnIndex("name"));
+        assertEquals(2, narrowed.columnCount());
+        assertEquals(-1, narrowed.columnIndex("name"));
+        assertEquals("extra", narrowed.column(1));
+        assertEquals("x", narrowed.text(1, narrowed.columnIndex("extra")));
+        assertEquals(Map.of("id", 3, "extra", "z"), narrowed.toMap(0));
+
+        assertEquals("1", picked.select(new int[]{1}).text(0, 0));
+    }
+
+    @Test
+    public void emptyRowSet() {
+        RowSet rows = RowSet.empty();
+        assertTrue(rows.isEmpty());
+        assertEquals(0, rows.columnCount());
+        assertEquals(-1, rows.columnIndex("id"));
+        assertTrue(rows.toMaps().isEmpty());
+    }
+}
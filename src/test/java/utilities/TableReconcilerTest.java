@@ -0,0 +1,103 @@
+package utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class TableReconcilerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Serves one page of rows and fixed column metadata instead of querying MySQL. */
+    private static final class StubDb extends databasecolumnUtil {
+        final Map<String, ColumnInfo> columns;
+        final RowSet page;
+
+        StubDb(Map<String, ColumnInfo> columns, RowSet page) {
+            super(new ConnectionPool(new ConnectionPool.Config()));
+            this.columns = columns;
+            this.page = page;
+        }
+
+        @Override
+        public Map<String, ColumnInfo> columnInfo(String host, int port, String database, String user, String password, String tableName) {
+            return columns;
+        }
+
+        @Override
+        public long scanByKeyset(String host, int port, String database, String user, String password, String tableName,
+                                 List<String> keyColumns, TimeWindow window, int pageSize, Predicate<RowSet> pageHandler) {
+            pageHandler.test(page);
+            return page.size();
+        }
+    }
+
+    private static List<JsonNode> rows(String json) throws Exception {
+        List<JsonNode> out = new ArrayList<>();
+        MAPPER.readTree(json).forEach(out::add);
+        return out;
+    }
+
+    private static TableReconciler.Result reconcile(StubDb db, List<String> keys, List<JsonNode> expected, databasecolumnUtil.TimeWindow window)
+            throws Exception {
+        JsonCompare.Schema schema = new JsonCompare.Schema();
+        schema.keyColumns = new ArrayList<>(keys);
+        return new TableReconciler(db, new JsonCompare(), "h", 1, "d", "u", "p")
+                .reconcile("orders", keys, expected, schema, window, ResultSink.NONE);
+    }
+
+    private static Map<String, databasecolumnUtil.ColumnInfo> columns(boolean codeCaseSensitive) {
+        return Map.of(
+                "code", new databasecolumnUtil.ColumnInfo("code", "VARCHAR", 0, codeCaseSensitive),
+                "id", new databasecolumnUtil.ColumnInfo("id", "INT", 0, false),
+                "status", new databasecolumnUtil.ColumnInfo("status", "VARCHAR", 0, false),
+                "created_at", new databasecolumnUtil.ColumnInfo("created_at", "DATETIME", 0, false));
+    }
+
+    @Test
+    public void keysEqualUnderCollationAndNumericValueAreMatched() throws Exception {
+        RowSet page = ResultSets.rowSet(List.of("code", "id", "status"), new Object[]{"abc", 1, "open"});
+        StubDb db = new StubDb(columns(false), page);
+
+        TableReconciler.Result result = reconcile(db, List.of("code", "id"),
+                rows("[{\"code\": \"ABC\", \"id\": \"1.0\", \"status\": \"open\"}]"), null);
+
+        assertEquals(1, result.matchedRows);
+        assertEquals(0, result.extraRows);
+        assertEquals(0, result.missingRows);
+    }
+
+    @Test
+    public void caseSensitiveKeysStayDistinct() throws Exception {
+        RowSet page = ResultSets.rowSet(List.of("code", "id", "status"), new Object[]{"abc", 1, "open"});
+        StubDb db = new StubDb(columns(true), page);
+
+        TableReconciler.Result result = reconcile(db, List.of("code", "id"),
+                rows("[{\"code\": \"ABC\", \"id\": 1, \"status\": \"open\"}]"), null);
+
+        assertEquals(0, result.matchedRows);
+        assertEquals(1, result.extraRows);
+        assertEquals(1, result.missingRows);
+    }
+
+    @Test
+    public void windowSkipsExpectedRowsWithoutTheWindowColumn() throws Exception {
+        RowSet page = ResultSets.rowSet(List.of("id", "status", "created_at"), new Object[]{1, "open", "2024-03-01 10:00:00"});
+        StubDb db = new StubDb(columns(false), page);
+        databasecolumnUtil.TimeWindow window = new databasecolumnUtil.TimeWindow("created_at", "2024-03-01 00:00:00", "2024-03-02 00:00:00");
+
+        TableReconciler.Result result = reconcile(db, List.of("id"), rows("[{\"id\": 1, \"status\": \"open\", \"created_at\": \"2024-03-01 10:00:00\"},"
+                + " {\"id\": 2, \"status\": \"open\"}, {\"id\": 3, \"status\": \"open\", \"created_at\": \"2024-02-01 10:00:00\"}]"), window);
+
+        assertEquals(1, result.expectedRows);
+        assertEquals(1, result.matchedRows);
+        assertEquals(0, result.missingRows);
+        assertTrue(result.clean());
+    }
+}
@@ -0,0 +1,135 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class databasecolumnUtilTest {
+
+    private static LinkedHashMap<String, String> criteria(String... columnsAndValues) {
+        LinkedHashMap<String, String> out = new LinkedHashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            out.put(columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return out;
+    }
+
+    @Test
+    public void inQueryReportsTupleOrdinalsAndBindsEachTupleTwice() {
+        String sql = databasecolumnUtil.buildInQuery("orders", "*", List.of("code", "created_at"), 2);
+        assertEquals("SELECT *, CONCAT_WS(','"
+                + ", IF(code = ? AND created_at = ?, '0', NULL)"
+                + ", IF(code = ? AND created_at = ?, '1', NULL)) AS " + databasecolumnUtil.ORDINALS_COLUMN
+                + " FROM orders WHERE (code, created_at) IN ((?, ?), (?, ?))", sql);
+        assertEquals(8, sql.chars().filter(c -> c == '?').count());
+    }
+
+    @Test
+    public void rowsFollowServerOrdinalsNotTheirJavaText() throws Exception {
+        // What MySQL returns for criteria 'abc' under a case-insensitive collation and for a DATETIME key
+        // given as '2024-01-01 10:00:00': neither key renders like its criteria on the client.
+        LinkedHashMap<String, String> caseInsensitive = criteria("code", "abc");
+        LinkedHashMap<String, String> dateTime = criteria("code", "2024-01-01 10:00:00");
+        LinkedHashMap<String, String> absent = criteria("code", "zzz");
+        List<LinkedHashMap<String, String>> chunk = List.of(caseInsensitive, dateTime, absent);
+        RowSet rows = ResultSets.rowSet(List.of("code", "amount", databasecolumnUtil.ORDINALS_COLUMN),
+                new Object[]{"ABC ", 7, "0"},
+                new Object[]{LocalDateTime.of(2024, 1, 1, 10, 0), 8, "1"},
+                new Object[]{"Abc", 9, "0"});
+
+        Map<LinkedHashMap<String, String>, RowSet> results = new LinkedHashMap<>();
+        databasecolumnUtil.assign(chunk, rows, results);
+
+        RowSet abc = results.get(caseInsensitive);
+        assertEquals(2, abc.size());
+        assertEquals("ABC", abc.text(0, abc.columnIndex("code")));
+        assertEquals("9", abc.text(1, abc.columnIndex("amount")));
+        assertEquals(-1, abc.columnIndex(databasecolumnUtil.ORDINALS_COLUMN));
+        assertEquals(2, abc.columnCount());
+
+        RowSet dt = results.get(dateTime);
+        assertEquals(1, dt.size());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), dt.get(0, dt.columnIndex("code")));
+
+        assertTrue(results.get(absent).isEmpty());
+    }
+
+    @Test
+    public void rowMatchingSeveralTuplesGoesToEachAndPaddingOrdinalsAreIgnored() throws Exception {
+        LinkedHashMap<String, String> padded = criteria("id", "007");
+        LinkedHashMap<String, String> plain = criteria("id", "7");
+        RowSet rows = ResultSets.rowSet(List.of("id", databasecolumnUtil.ORDINALS_COLUMN),
+                new Object[]{7L, "0,1,3"});
+
+        Map<LinkedHashMap<String, String>, RowSet> results = new LinkedHashMap<>();
+        databasecolumnUtil.assign(List.of(padded, plain), rows, results);
+
+        assertEquals(1, results.get(padded).size());
+        assertEquals(1, results.get(plain).size());
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void firstKeysetPageHasNoKeyPredicate() {
+        assertEquals("SELECT * FROM audit ORDER BY id LIMIT ?",
+                databasecolumnUtil.buildKeysetQuery("audit", List.of("id"), null, false));
+    }
+
+    @Test
+    public void singleColumnKeysetPredicate() {
+        assertEquals("SELECT * FROM audit WHERE (id > ?) ORDER BY id LIMIT ?",
+                databasecolumnUtil.buildKeysetQuery("audit", List.of("id"), null, true));
+    }
+
+    @Test
+    public void compositeKeysetPredicateIsExpandedForRangeScans() {
+        assertEquals("SELECT * FROM audit WHERE (a > ? OR (a = ? AND b > ?) OR (a = ? AND b = ? AND c > ?))"
+                        + " ORDER BY a, b, c LIMIT ?",
+                databasecolumnUtil.buildKeysetQuery("audit", List.of("a", "b", "c"), null, true));
+    }
+
+    @Test
+    public void windowBoundsPrecedeTheKeysetPredicate() {
+        databasecolumnUtil.TimeWindow window = new databasecolumnUtil.TimeWindow("created", "2024-01-01", "2024-02-01");
+        assertEquals("SELECT * FROM audit WHERE created >= ? AND created < ? AND (id > ?) ORDER BY id LIMIT ?",
+                databasecolumnUtil.buildKeysetQuery("audit", List.of("id"), window, true));
+
+        databasecolumnUtil.TimeWindow openEnded = new databasecolumnUtil.TimeWindow("created", null, "2024-02-01");
+        assertEquals("SELECT * FROM audit WHERE created < ? ORDER BY id LIMIT ?",
+                databasecolumnUtil.buildKeysetQuery("audit", List.of("id"), openEnded, false));
+    }
+
+    @Test
+    public void lastKeyIsTakenFromTheLastRowOfThePage() throws Exception {
+        RowSet page = ResultSets.rowSet(List.of("a", "b", "v"),
+                new Object[]{1, "x", "first"},
+                new Object[]{2, "y", "last"});
+        assertArrayEquals(new Object[]{2, "y"}, databasecolumnUtil.lastKey(page, "t", List.of("a", "b")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lastKeyRejectsNullKeys() throws Exception {
+        RowSet page = ResultSets.rowSet(List.of("a"), new Object[]{1}, new Object[]{null});
+        databasecolumnUtil.lastKey(page, "t", List.of("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lastKeyRejectsUnknownKeyColumns() throws Exception {
+        RowSet page = ResultSets.rowSet(List.of("a"), new Object[]{1});
+        databasecolumnUtil.lastKey(page, "t", List.of("missing"));
+    }
+
+    @Test
+    public void timeWindowIsHalfOpenAndAcceptsTSeparators() {
+        databasecolumnUtil.TimeWindow window = new databasecolumnUtil.TimeWindow("created", "2024-01-01T00:00:00", "2024-02-01 00:00:00");
+        assertTrue(window.contains("2024-01-01 00:00:00"));
+        assertTrue(window.contains("2024-01-31T23:59:59.999"));
+        assertFalse(window.contains("2024-02-01T00:00:00"));
+        assertFalse(window.contains("2023-12-31 23:59:59"));
+        assertFalse(window.contains(null));
+        assertTrue(new databasecolumnUtil.TimeWindow("created", null, null).contains("1970-01-01 00:00:00"));
+    }
+}